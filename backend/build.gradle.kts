@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.4.1"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.confluence"
@@ -24,6 +25,17 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.springframework.boot:spring-boot-starter-cache")
+    
+    // Caching
+    implementation("com.github.ben-manes.caffeine:caffeine")
+    
+    // Markdown rendering
+    implementation("org.commonmark:commonmark:0.24.0")
+    implementation("org.commonmark:commonmark-ext-gfm-tables:0.24.0")
+    
+    // Metrics
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
     
     // Database
     implementation("org.xerial:sqlite-jdbc:3.44.1.0")
@@ -42,10 +54,35 @@ dependencies {
     testImplementation("org.testcontainers:junit-jupiter")
 }
 
+// Load harness: ./gradlew loadTest --args="--loadtest.pages=20000 --app.simulated-error-rate=0.05"
+val loadtest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadtest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadtest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Runs the scheduler load harness against the simulated provider"
+    classpath = loadtest.runtimeClasspath
+    mainClass.set("com.confluence.publisher.loadtest.SchedulerLoadTest")
+    workingDir = projectDir
+}
+
 tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+// Benchmarks: ./gradlew jmh [-PjmhIncludes=PageServiceBenchmark] [-PjmhResults=build/results/jmh/<commit>.json]
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    resultsFile.set(file(project.findProperty("jmhResults") ?: layout.buildDirectory.file("results/jmh/results.json").get()))
+    project.findProperty("jmhIncludes")?.let { includes.set(listOf(it.toString())) }
+}
+
 tasks.jar {
     enabled = false
 }
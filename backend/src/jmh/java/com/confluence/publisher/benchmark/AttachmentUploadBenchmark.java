@@ -0,0 +1,66 @@
+package com.confluence.publisher.benchmark;
+
+import com.confluence.publisher.entity.Attachment;
+import com.confluence.publisher.service.AttachmentService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Each invocation uploads distinct bytes so the full hash-and-store path is measured rather than
+// blob reuse, and the attachment is deleted afterwards to keep the disk footprint flat
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AttachmentUploadBenchmark {
+    
+    @Param({"1024", "1048576", "16777216"})
+    public int fileSize;
+    
+    private final AtomicLong counter = new AtomicLong();
+    private BenchmarkApplication application;
+    private AttachmentService attachmentService;
+    private byte[] payload;
+    private BytesMultipartFile file;
+    private Attachment uploaded;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        attachmentService = application.getBean(AttachmentService.class);
+        payload = new byte[fileSize];
+        ThreadLocalRandom.current().nextBytes(payload);
+    }
+    
+    @Setup(Level.Invocation)
+    public void prepareFile() {
+        ByteBuffer.wrap(payload).putLong(0, counter.incrementAndGet());
+        file = new BytesMultipartFile("upload.bin", "application/octet-stream", payload);
+    }
+    
+    @TearDown(Level.Invocation)
+    public void deleteUpload() {
+        if (uploaded != null) {
+            attachmentService.deleteAttachment(uploaded.getId());
+            uploaded = null;
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        application.close();
+    }
+    
+    @Benchmark
+    public Attachment uploadAttachment() {
+        uploaded = attachmentService.uploadAttachment(file, null);
+        return uploaded;
+    }
+}
+
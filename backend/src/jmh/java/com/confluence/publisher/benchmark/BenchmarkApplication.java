@@ -0,0 +1,58 @@
+package com.confluence.publisher.benchmark;
+
+import com.confluence.publisher.ConfluencePublisherApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Boots the real application against a throwaway SQLite database and attachment directory.
+// The scheduler is switched off so nothing but the benchmark touches the tables, and the
+// provider guards are opened up so the stub provider is measured rather than the rate limiter.
+final class BenchmarkApplication implements AutoCloseable {
+    
+    private final Path workDir;
+    private final ConfigurableApplicationContext context;
+    
+    private BenchmarkApplication(Path workDir, ConfigurableApplicationContext context) {
+        this.workDir = workDir;
+        this.context = context;
+    }
+    
+    static BenchmarkApplication start() throws IOException {
+        Path workDir = Files.createTempDirectory("publisher-bench");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ConfluencePublisherApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties(
+                        "app.database-url=jdbc:sqlite:" + workDir.resolve("bench.db"),
+                        "app.attachment-dir=" + workDir.resolve("attachments"),
+                        "app.provider=stub",
+                        "app.scheduler-enabled=false",
+                        "app.provider-rate-limit-per-second=1000000",
+                        "app.provider-rate-limit-burst=1000000",
+                        "app.provider-space-rate-limit-per-second=1000000",
+                        "app.provider-space-rate-limit-burst=1000000",
+                        "app.provider-concurrency-initial=1024",
+                        "app.provider-concurrency-max=1024",
+                        "logging.level.root=WARN"
+                )
+                .run();
+        return new BenchmarkApplication(workDir, context);
+    }
+    
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(workDir);
+    }
+}
+
@@ -0,0 +1,46 @@
+package com.confluence.publisher.benchmark;
+
+import com.confluence.publisher.entity.Attachment;
+import com.confluence.publisher.repository.AttachmentRepository;
+
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+final class BenchmarkData {
+    
+    static final String SPACE_KEY = "BENCH";
+    
+    private BenchmarkData() {
+    }
+    
+    // Attachment rows only: publishing and page reads never open the stored files
+    static List<Long> createAttachments(AttachmentRepository attachmentRepository, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] hash = new byte[32];
+            ThreadLocalRandom.current().nextBytes(hash);
+            String contentHash = HexFormat.of().formatHex(hash);
+            Attachment attachment = attachmentRepository.save(Attachment.builder()
+                    .filename("file-" + i + ".png")
+                    .contentType("image/png")
+                    .size(4096L)
+                    .storagePath("bench/" + contentHash)
+                    .contentHash(contentHash)
+                    .build());
+            ids.add(attachment.getId());
+        }
+        return ids;
+    }
+    
+    static String content(int paragraphs) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < paragraphs; i++) {
+            content.append("<p>Benchmark paragraph ").append(i)
+                    .append(" with enough text to look like a real page body.</p>");
+        }
+        return content.toString();
+    }
+}
+
@@ -0,0 +1,55 @@
+package com.confluence.publisher.benchmark;
+
+import com.confluence.publisher.dto.PageResponse;
+import com.confluence.publisher.entity.Page;
+import com.confluence.publisher.repository.AttachmentRepository;
+import com.confluence.publisher.service.PageService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PageServiceBenchmark {
+    
+    @Param({"0", "5", "20"})
+    public int attachmentCount;
+    
+    private BenchmarkApplication application;
+    private PageService pageService;
+    private List<Long> attachmentIds;
+    private String content;
+    private Long pageId;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        pageService = application.getBean(PageService.class);
+        attachmentIds = BenchmarkData.createAttachments(application.getBean(AttachmentRepository.class), attachmentCount);
+        content = BenchmarkData.content(20);
+        pageId = pageService.createPage("Read target", content, "storage", BenchmarkData.SPACE_KEY, null, attachmentIds).getId();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        application.close();
+    }
+    
+    @Benchmark
+    public Page createPage() {
+        return pageService.createPage("Benchmark page", content, "storage", BenchmarkData.SPACE_KEY, null, attachmentIds);
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public PageResponse getPage() {
+        return pageService.getPage(pageId);
+    }
+}
+
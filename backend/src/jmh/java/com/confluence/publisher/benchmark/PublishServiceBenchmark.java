@@ -0,0 +1,67 @@
+package com.confluence.publisher.benchmark;
+
+import com.confluence.publisher.entity.PublishLog;
+import com.confluence.publisher.repository.AttachmentRepository;
+import com.confluence.publisher.service.PageService;
+import com.confluence.publisher.service.PublishService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// "changed" publishes a page that has never been published; "unchanged" republishes the same
+// page, which the publish fingerprint turns into a no-op after the first call
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PublishServiceBenchmark {
+    
+    @Param({"0", "5"})
+    public int attachmentCount;
+    
+    @Param({"changed", "unchanged"})
+    public String mode;
+    
+    private BenchmarkApplication application;
+    private PageService pageService;
+    private PublishService publishService;
+    private List<Long> attachmentIds;
+    private String content;
+    private Long pageId;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        pageService = application.getBean(PageService.class);
+        publishService = application.getBean(PublishService.class);
+        attachmentIds = BenchmarkData.createAttachments(application.getBean(AttachmentRepository.class), attachmentCount);
+        content = BenchmarkData.content(20);
+        pageId = createPage();
+    }
+    
+    @Setup(Level.Invocation)
+    public void preparePage() {
+        if ("changed".equals(mode)) {
+            pageId = createPage();
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        application.close();
+    }
+    
+    @Benchmark
+    public PublishLog publishPage() {
+        return publishService.publishPage(pageId);
+    }
+    
+    private Long createPage() {
+        return pageService.createPage("Publish target", content, "storage", BenchmarkData.SPACE_KEY, null, attachmentIds).getId();
+    }
+}
+
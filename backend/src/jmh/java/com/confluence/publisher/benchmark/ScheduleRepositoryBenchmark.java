@@ -0,0 +1,84 @@
+package com.confluence.publisher.benchmark;
+
+import com.confluence.publisher.entity.Schedule;
+import com.confluence.publisher.repository.ScheduleRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Seeds a schedule table shaped like a long-running install: almost everything already posted,
+// a small queued backlog of which half is due. Seeding 1M rows takes a while; it happens once per fork.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ScheduleRepositoryBenchmark {
+    
+    private static final int FLUSH_SIZE = 10_000;
+    private static final int QUEUED_EVERY = 50;
+    private static final int CLAIM_BATCH_SIZE = 100;
+    
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+    
+    private BenchmarkApplication application;
+    private ScheduleRepository scheduleRepository;
+    private Instant now;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        application = BenchmarkApplication.start();
+        scheduleRepository = application.getBean(ScheduleRepository.class);
+        now = Instant.now();
+        seed(application.getBean(EntityManager.class), new TransactionTemplate(application.getBean(PlatformTransactionManager.class)));
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        application.close();
+    }
+    
+    @Benchmark
+    public List<Schedule> findQueuedSchedulesBefore() {
+        return scheduleRepository.findQueuedSchedulesBefore(now);
+    }
+    
+    @Benchmark
+    public List<Long> findClaimableScheduleIds() {
+        return scheduleRepository.findClaimableScheduleIds(now, PageRequest.of(0, CLAIM_BATCH_SIZE));
+    }
+    
+    private void seed(EntityManager entityManager, TransactionTemplate transactionTemplate) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < rows; i++) {
+                boolean queued = i % QUEUED_EVERY == 0;
+                // Queued rows alternate between already due and an hour out
+                Instant scheduledAt = queued && (i / QUEUED_EVERY) % 2 == 1
+                        ? now.plus(Duration.ofHours(1))
+                        : now.minus(Duration.ofSeconds(rows - i));
+                entityManager.persist(Schedule.builder()
+                        .pageId((long) (i % 1000) + 1)
+                        .scheduledAt(scheduledAt)
+                        .nextAttemptAt(scheduledAt)
+                        .status(queued ? "queued" : "posted")
+                        .attemptCount(queued ? 0 : 1)
+                        .build());
+                if ((i + 1) % FLUSH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+    }
+}
+
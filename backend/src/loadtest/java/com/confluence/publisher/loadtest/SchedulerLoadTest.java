@@ -0,0 +1,230 @@
+package com.confluence.publisher.loadtest;
+
+import com.confluence.publisher.ConfluencePublisherApplication;
+import com.confluence.publisher.entity.Page;
+import com.confluence.publisher.entity.PublishLog;
+import com.confluence.publisher.entity.Schedule;
+import com.confluence.publisher.provider.SimulatedProvider;
+import com.confluence.publisher.repository.PublishLogRepository;
+import com.confluence.publisher.repository.ScheduleRepository;
+import com.confluence.publisher.service.PageService;
+import com.confluence.publisher.service.ScheduleService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Seeds pages and schedules spread over a time window, lets the real scheduler publish them
+// through the simulated provider and reports throughput, schedule lag and failures.
+//
+//   ./gradlew loadTest --args="--loadtest.pages=20000 --app.simulated-error-rate=0.05"
+//
+// Any app.* property can be overridden the same way; loadtest.* properties are listed in main().
+public final class SchedulerLoadTest {
+    
+    private static final int SEED_CHUNK_SIZE = 1000;
+    
+    private SchedulerLoadTest() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Path workDir = Files.createTempDirectory("publisher-loadtest");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ConfluencePublisherApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties(
+                        "app.database-url=jdbc:sqlite:" + workDir.resolve("loadtest.db"),
+                        "app.attachment-dir=" + workDir.resolve("attachments"),
+                        "app.provider=simulated",
+                        "logging.level.root=WARN"
+                )
+                .run(args);
+        int exitCode = 0;
+        try {
+            Environment env = context.getEnvironment();
+            int pages = env.getProperty("loadtest.pages", Integer.class, 10_000);
+            int spaces = env.getProperty("loadtest.spaces", Integer.class, 4);
+            long spreadSeconds = env.getProperty("loadtest.spread-seconds", Long.class, 60L);
+            long timeoutMinutes = env.getProperty("loadtest.timeout-minutes", Long.class, 30L);
+            Path reportFile = Path.of(env.getProperty("loadtest.report", "build/results/loadtest/report.json"));
+            
+            List<Long> pageIds = seedPages(context.getBean(PageService.class), pages, spaces);
+            Instant start = Instant.now().plusSeconds(5);
+            seedSchedules(context, pageIds, start, Duration.ofSeconds(spreadSeconds));
+            System.out.printf("Seeded %d pages in %d spaces, due between %s and %s%n",
+                    pages, spaces, start, start.plusSeconds(spreadSeconds));
+            
+            boolean drained = awaitDrained(context.getBean(ScheduleRepository.class),
+                    start.plusSeconds(spreadSeconds).plus(Duration.ofMinutes(timeoutMinutes)));
+            Map<String, Object> report = buildReport(context, drained);
+            report.put("pages", pages);
+            report.put("spaces", spaces);
+            report.put("spreadSeconds", spreadSeconds);
+            report.put("settings", settings(env));
+            
+            ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+            String json = objectMapper.writeValueAsString(report);
+            System.out.println(json);
+            Files.createDirectories(reportFile.toAbsolutePath().getParent());
+            Files.writeString(reportFile, json);
+            System.out.println("Report written to " + reportFile.toAbsolutePath());
+            if (!drained) {
+                exitCode = 1;
+            }
+        } finally {
+            context.close();
+            FileSystemUtils.deleteRecursively(workDir);
+        }
+        System.exit(exitCode);
+    }
+    
+    private static List<Long> seedPages(PageService pageService, int pages, int spaces) {
+        List<Long> pageIds = new ArrayList<>(pages);
+        for (int offset = 0; offset < pages; offset += SEED_CHUNK_SIZE) {
+            List<PageService.NewPage> chunk = new ArrayList<>();
+            for (int i = offset; i < Math.min(pages, offset + SEED_CHUNK_SIZE); i++) {
+                chunk.add(new PageService.NewPage(
+                        "Load test page " + i,
+                        "<p>Load test content for page " + i + "</p>",
+                        "storage",
+                        "LOAD" + (i % Math.max(1, spaces)),
+                        null,
+                        List.of()
+                ));
+            }
+            pageService.createPages(chunk).stream().map(Page::getId).forEach(pageIds::add);
+        }
+        return pageIds;
+    }
+    
+    // One transaction per chunk; the queued events reach the due-time timer when each chunk commits
+    private static void seedSchedules(ConfigurableApplicationContext context, List<Long> pageIds, Instant start, Duration spread) {
+        ScheduleService scheduleService = context.getBean(ScheduleService.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        long stepNanos = spread.toNanos() / Math.max(1, pageIds.size());
+        for (int offset = 0; offset < pageIds.size(); offset += SEED_CHUNK_SIZE) {
+            int from = offset;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = from; i < Math.min(pageIds.size(), from + SEED_CHUNK_SIZE); i++) {
+                    scheduleService.createSchedule(pageIds.get(i), start.plusNanos(stepNanos * i));
+                }
+            });
+        }
+    }
+    
+    private static boolean awaitDrained(ScheduleRepository scheduleRepository, Instant deadline) throws InterruptedException {
+        while (Instant.now().isBefore(deadline)) {
+            Map<String, Long> counts = statusCounts(scheduleRepository);
+            long pending = counts.getOrDefault("queued", 0L) + counts.getOrDefault("claimed", 0L);
+            if (pending == 0) {
+                return true;
+            }
+            System.out.printf("%s pending=%d posted=%d failed=%d%n", Instant.now(), pending,
+                    counts.getOrDefault("posted", 0L), counts.getOrDefault("failed", 0L));
+            Thread.sleep(1000);
+        }
+        System.out.println("Timed out waiting for the schedule queue to drain");
+        return false;
+    }
+    
+    private static Map<String, Object> buildReport(ConfigurableApplicationContext context, boolean drained) {
+        ScheduleRepository scheduleRepository = context.getBean(ScheduleRepository.class);
+        SimulatedProvider simulatedProvider = context.getBean(SimulatedProvider.class);
+        List<Schedule> schedules = scheduleRepository.findAll();
+        
+        Map<Long, Instant> publishedAt = new HashMap<>();
+        for (PublishLog publishLog : context.getBean(PublishLogRepository.class).findAll()) {
+            if ("published".equals(publishLog.getStatus()) || "no-op".equals(publishLog.getStatus())) {
+                publishedAt.merge(publishLog.getPageId(), publishLog.getCreatedAt(),
+                        (a, b) -> a.isBefore(b) ? a : b);
+            }
+        }
+        
+        List<Long> lagsMs = new ArrayList<>();
+        Instant firstDue = null;
+        Instant lastPublished = null;
+        long attempts = 0;
+        for (Schedule schedule : schedules) {
+            attempts += schedule.getAttemptCount();
+            firstDue = firstDue == null || schedule.getScheduledAt().isBefore(firstDue) ? schedule.getScheduledAt() : firstDue;
+            Instant published = publishedAt.get(schedule.getPageId());
+            if ("posted".equals(schedule.getStatus()) && published != null) {
+                lagsMs.add(Math.max(0, Duration.between(schedule.getScheduledAt(), published).toMillis()));
+                lastPublished = lastPublished == null || published.isAfter(lastPublished) ? published : lastPublished;
+            }
+        }
+        lagsMs.sort(null);
+        
+        Map<String, Long> counts = statusCounts(scheduleRepository);
+        long posted = counts.getOrDefault("posted", 0L);
+        long failed = counts.getOrDefault("failed", 0L);
+        double windowSeconds = firstDue != null && lastPublished != null
+                ? Math.max(0.001, Duration.between(firstDue, lastPublished).toMillis() / 1000.0)
+                : 0;
+        
+        Map<String, Object> lag = new LinkedHashMap<>();
+        lag.put("p50Ms", percentile(lagsMs, 0.50));
+        lag.put("p90Ms", percentile(lagsMs, 0.90));
+        lag.put("p99Ms", percentile(lagsMs, 0.99));
+        lag.put("maxMs", lagsMs.isEmpty() ? 0 : lagsMs.get(lagsMs.size() - 1));
+        
+        Map<String, Object> provider = new LinkedHashMap<>();
+        provider.put("calls", simulatedProvider.getCalls());
+        provider.put("errors", simulatedProvider.getErrors());
+        provider.put("throttled", simulatedProvider.getThrottled());
+        provider.put("timeouts", simulatedProvider.getTimeouts());
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("drained", drained);
+        report.put("schedules", counts);
+        report.put("publishesPerSecond", windowSeconds > 0 ? posted / windowSeconds : 0);
+        report.put("scheduleLag", lag);
+        report.put("failedSchedules", failed);
+        report.put("retriedAttempts", Math.max(0, attempts - posted - failed));
+        report.put("provider", provider);
+        return report;
+    }
+    
+    private static Map<String, Long> statusCounts(ScheduleRepository scheduleRepository) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        scheduleRepository.countByStatus().forEach(row -> counts.put(row.getStatus(), row.getCount()));
+        return counts;
+    }
+    
+    private static long percentile(List<Long> sorted, double quantile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index)));
+    }
+    
+    private static Map<String, Object> settings(Environment env) {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        for (String key : List.of(
+                "app.simulated-latency-median-ms", "app.simulated-latency-p99-ms", "app.simulated-error-rate",
+                "app.simulated-throttle-rate", "app.simulated-timeout-ms", "app.scheduler-dispatch-mode",
+                "app.scheduler-max-concurrency", "app.scheduler-max-concurrency-per-space",
+                "app.provider-rate-limit-per-second", "app.provider-space-rate-limit-per-second",
+                "app.provider-concurrency-max", "app.retry-max-attempts")) {
+            settings.put(key, env.getProperty(key));
+        }
+        return settings;
+    }
+}
+
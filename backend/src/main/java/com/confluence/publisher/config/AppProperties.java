@@ -5,7 +5,10 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.util.List;
+import java.util.UUID;
 
 @Configuration
 @ConfigurationProperties(prefix = "app")
@@ -15,13 +18,84 @@ public class AppProperties {
     
     private String appName = "confluence-publisher";
     private String databaseUrl = "jdbc:sqlite:./data/app.db";
+    private Integer databaseReaderPoolSize = 4;
+    private String databaseSynchronous = "NORMAL";
+    private Integer databaseBusyTimeoutMs = 5000;
+    private Integer databaseCacheSize = -20000;
     private String attachmentDir = "storage/attachments";
     private String confluenceUrl = "https://your-domain.atlassian.net";
     private String confluenceUsername = "";
     private String confluenceDefaultSpace = "DEV";
     private String confluenceApiToken = "";
+    private String confluenceApiPath = "/wiki/rest/api";
+    private Integer confluenceConnectTimeoutSeconds = 10;
+    private Integer confluenceRequestTimeoutSeconds = 60;
     private List<String> corsOrigins = List.of("http://localhost:5173", "http://localhost:4200", "http://localhost:8080");
     private String provider = "confluence-stub";
     private Integer schedulerIntervalSeconds = 5;
+    private Boolean schedulerEnabled = true;
+    private Boolean schedulerTimerEnabled = true;
+    private Integer schedulerReconcileIntervalSeconds = 60;
+    private String schedulerDispatchMode = "parallel";
+    private Integer schedulerMaxConcurrency = 16;
+    private Integer schedulerMaxConcurrencyPerSpace = 4;
+    private Integer schedulerBatchSize = 100;
+    private Integer schedulerLeaseSeconds = 300;
+    private Integer retryMaxAttempts = 5;
+    private Integer retryInitialBackoffSeconds = 10;
+    private Integer retryMaxBackoffSeconds = 900;
+    private Double retryBackoffMultiplier = 2.0;
+    private Double retryJitter = 0.5;
+    private Double providerRateLimitPerSecond = 20.0;
+    private Integer providerRateLimitBurst = 40;
+    private Double providerSpaceRateLimitPerSecond = 5.0;
+    private Integer providerSpaceRateLimitBurst = 10;
+    private Integer providerRateLimitMaxWaitSeconds = 30;
+    private Integer providerConcurrencyInitial = 8;
+    private Integer providerConcurrencyMin = 1;
+    private Integer providerConcurrencyMax = 32;
+    private Integer providerLatencyTargetMs = 2000;
+    private Integer providerAttachmentParallelism = 4;
+    private Integer providerAttachmentRetries = 2;
+    private Long providerAttachmentRetryBackoffMs = 500L;
+    private Integer publishTreeParallelism = 8;
+    private Integer publishTreeMaxPages = 10000;
+    private Integer publishTreeJobTtlMinutes = 60;
+    private Integer circuitBreakerFailureThreshold = 5;
+    private Integer circuitBreakerOpenSeconds = 30;
+    private Integer metricsQueueRefreshSeconds = 15;
+    private Long pageCacheMaxSize = 10000L;
+    private Long pageCacheTtlSeconds = 300L;
+    private Long renderCacheMaxChars = 20_000_000L;
+    private Integer exportFetchSize = 500;
+    private Long uploadMaxSizeBytes = 10L * 1024 * 1024 * 1024;
+    private Integer uploadChunkSizeBytes = 8 * 1024 * 1024;
+    private Integer uploadSessionTtlHours = 24;
+    private Boolean publishLogWriteBehind = true;
+    private Integer publishLogBatchSize = 100;
+    private Integer publishLogFlushIntervalMs = 5;
+    private Integer publishLogQueueCapacity = 1000;
+    private String archiveDir = "storage/archive";
+    private Boolean retentionEnabled = true;
+    private Integer retentionDays = 90;
+    private Integer retentionBatchSize = 1000;
+    private String retentionCron = "0 30 3 * * *";
+    private Long simulatedLatencyMedianMs = 300L;
+    private Long simulatedLatencyP99Ms = 1500L;
+    private Long simulatedAttachmentLatencyMs = 50L;
+    private Long simulatedTimeoutMs = 10000L;
+    private Double simulatedErrorRate = 0.0;
+    private Double simulatedThrottleRate = 0.0;
+    private String nodeId = defaultNodeId();
+    
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
 }
 
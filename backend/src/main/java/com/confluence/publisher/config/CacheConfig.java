@@ -0,0 +1,39 @@
+package com.confluence.publisher.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String PAGES = "pages";
+    public static final String RENDERED_CONTENT = "renderedContent";
+    
+    @Bean
+    public CacheManager cacheManager(AppProperties appProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(appProperties.getPageCacheMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(appProperties.getPageCacheTtlSeconds()))
+                .recordStats());
+        // Declared up front so the caches exist when Spring Boot binds cache metrics at startup
+        cacheManager.setCacheNames(List.of(PAGES));
+        cacheManager.setAllowNullValues(false);
+        // Keyed by a hash of the rendered input, so entries never go stale; bounded by total characters instead
+        cacheManager.registerCustomCache(RENDERED_CONTENT, Caffeine.newBuilder()
+                .maximumWeight(appProperties.getRenderCacheMaxChars())
+                .weigher((Object key, Object value) -> ((String) value).length())
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
+
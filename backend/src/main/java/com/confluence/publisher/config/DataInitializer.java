@@ -1,5 +1,6 @@
 package com.confluence.publisher.config;
 
+import com.confluence.publisher.service.ScheduleService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -14,6 +15,7 @@ import java.nio.file.Paths;
 public class DataInitializer implements CommandLineRunner {
     
     private final AppProperties appProperties;
+    private final ScheduleService scheduleService;
     
     @Override
     public void run(String... args) throws Exception {
@@ -30,6 +32,11 @@ public class DataInitializer implements CommandLineRunner {
         Files.createDirectories(Paths.get(appProperties.getAttachmentDir()));
         
         log.info("Initialized data directories");
+        
+        int backfilled = scheduleService.backfillNextAttemptAt();
+        if (backfilled > 0) {
+            log.info("Backfilled next attempt time for {} schedules", backfilled);
+        }
     }
 }
 
@@ -0,0 +1,40 @@
+package com.confluence.publisher.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IdGeneratorInitializer {
+    
+    // Tables whose ids moved from IDENTITY to the "id_generator" table (see BlockIdGenerator)
+    private static final List<String> TABLES = List.of("page", "pageattachment", "publishlog");
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    // Starts each generator after the highest existing id, so rows created before the switch do not collide.
+    // Runs after the schema update and before the web server accepts requests.
+    @PostConstruct
+    public void seedGenerators() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS id_generator (name VARCHAR(255) NOT NULL PRIMARY KEY, next_val BIGINT)");
+        for (String table : TABLES) {
+            // The aggregate always yields one row, so an existing generator is kept by the primary key conflict
+            int seeded = jdbcTemplate.update(
+                    "INSERT OR IGNORE INTO id_generator (name, next_val) " +
+                    "SELECT ?, COALESCE(MAX(id), 0) + 1 FROM " + table,
+                    table);
+            if (seeded > 0) {
+                log.info("Seeded id generator for table {}", table);
+            }
+        }
+    }
+}
+
@@ -1,25 +1,65 @@
 package com.confluence.publisher.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
 import javax.sql.DataSource;
 
 @Configuration
+@RequiredArgsConstructor
 public class JpaConfig {
     
-    @Value("${app.database-url}")
-    private String databaseUrl;
+    private final AppProperties appProperties;
     
+    // SQLite allows a single writer at a time, so writes queue on one pooled connection
+    // instead of failing with SQLITE_BUSY, while WAL lets readers proceed alongside it
     @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("org.sqlite.JDBC");
+    public HikariDataSource writerDataSource() {
+        return createPool("sqlite-writer", 1, false);
+    }
+    
+    @Bean
+    public HikariDataSource readerDataSource() {
+        return createPool("sqlite-reader", appProperties.getDatabaseReaderPoolSize(), true);
+    }
+    
+    // Connections are fetched lazily, after the transaction manager has flagged the transaction
+    // as read-only, so @Transactional(readOnly = true) work is routed to the reader pool
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource writerDataSource, HikariDataSource readerDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writerDataSource);
+        dataSource.setReadOnlyDataSource(readerDataSource);
+        return dataSource;
+    }
+    
+    private HikariDataSource createPool(String poolName, int maxPoolSize, boolean readOnly) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setDriverClassName("org.sqlite.JDBC");
+        config.setJdbcUrl(resolveUrl());
+        config.setMaximumPoolSize(maxPoolSize);
+        config.setMinimumIdle(1);
+        // Pragmas understood by the sqlite-jdbc driver and applied to every new connection
+        config.addDataSourceProperty("journal_mode", "WAL");
+        config.addDataSourceProperty("synchronous", appProperties.getDatabaseSynchronous());
+        config.addDataSourceProperty("busy_timeout", String.valueOf(appProperties.getDatabaseBusyTimeoutMs()));
+        config.addDataSourceProperty("cache_size", String.valueOf(appProperties.getDatabaseCacheSize()));
+        if (readOnly) {
+            config.setConnectionInitSql("PRAGMA query_only = ON");
+        }
+        return new HikariDataSource(config);
+    }
+    
+    private String resolveUrl() {
         // Ensure proper SQLite URL format
         // Handle both jdbc:sqlite: and jdbc:sqlite:/// formats
-        String url = databaseUrl;
+        String url = appProperties.getDatabaseUrl();
         if (!url.startsWith("jdbc:sqlite")) {
             url = "jdbc:sqlite:" + url;
         }
@@ -27,8 +67,7 @@ public class JpaConfig {
         if (url.startsWith("jdbc:sqlite:///")) {
             url = "jdbc:sqlite:" + url.substring("jdbc:sqlite:///".length());
         }
-        dataSource.setUrl(url);
-        return dataSource;
+        return url;
     }
 }
 
@@ -0,0 +1,18 @@
+package com.confluence.publisher.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class SchedulerConfig {
+    
+    @Bean(destroyMethod = "close")
+    public ExecutorService publishExecutor() {
+        // Publishes spend most of their time waiting on the provider, so one virtual thread per task is cheap
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
+
@@ -3,17 +3,48 @@ package com.confluence.publisher.controller;
 import com.confluence.publisher.dto.AttachmentUploadResponse;
 import com.confluence.publisher.entity.Attachment;
 import com.confluence.publisher.service.AttachmentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/attachments")
 @RequiredArgsConstructor
 public class AttachmentController {
     
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // Content types that cannot run script; anything else the uploader claims is offered as a download only
+    private static final Set<MediaType> INLINE_TYPES = Set.of(
+            MediaType.IMAGE_PNG, MediaType.IMAGE_JPEG, MediaType.IMAGE_GIF,
+            MediaType.parseMediaType("image/webp"), MediaType.parseMediaType("image/bmp"),
+            MediaType.APPLICATION_PDF);
+    
     private final AttachmentService attachmentService;
     
     @PostMapping
@@ -29,5 +60,107 @@ public class AttachmentController {
                 .build();
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
+    
+    // Served with Tomcat's sendfile when the connector supports it, so the bytes go from the page cache
+    // to the socket without passing through the heap; otherwise FileChannel.transferTo copies in small chunks.
+    // A single byte range is honoured; multiple ranges fall back to the full content, as RFC 9110 allows.
+    @GetMapping("/{attachmentId}/content")
+    public void getAttachmentContent(@PathVariable Long attachmentId,
+                                     WebRequest webRequest,
+                                     HttpServletRequest request,
+                                     HttpServletResponse response) throws IOException {
+        Attachment attachment = attachmentService.getAttachment(attachmentId);
+        Path path = attachmentService.getContentPath(attachment);
+        long length = Files.size(path);
+        // Blobs are content addressed, so the hash is a strong validator; legacy rows fall back to id and size
+        String etag = "\"" + (attachment.getContentHash() != null ? attachment.getContentHash() : attachmentId + "-" + length) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return;
+        }
+        
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), etag)) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+        }
+        
+        long count = end - start + 1;
+        // The content type is whatever the uploader sent, so the browser must neither sniff nor run the bytes
+        // on this origin: only allowlisted types are shown inline, and nothing served here may run script
+        MediaType contentType = contentType(attachment.getContentType());
+        boolean inline = INLINE_TYPES.contains(contentType);
+        response.setContentType(contentType.toString());
+        response.setContentLengthLong(count);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader("Content-Security-Policy", "sandbox");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, (inline ? ContentDisposition.inline() : ContentDisposition.attachment())
+                .filename(attachment.getFilename(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        if (count == 0 || HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+        
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file itself once this method returns
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+    
+    @DeleteMapping("/{attachmentId}")
+    public ResponseEntity<Void> deleteAttachment(@PathVariable Long attachmentId) {
+        attachmentService.deleteAttachment(attachmentId);
+        return ResponseEntity.noContent().build();
+    }
+    
+    // Type and subtype only, so parameters cannot sneak a type past the allowlist; unparseable types are binary
+    private static MediaType contentType(String contentType) {
+        if (contentType == null) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return new MediaType(mediaType.getType(), mediaType.getSubtype());
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+    
+    // A Range is only honoured when If-Range is absent or still names the current representation
+    private static boolean ifRangeMatches(String ifRange, String etag) {
+        return ifRange == null || ifRange.equals(etag);
+    }
 }
 
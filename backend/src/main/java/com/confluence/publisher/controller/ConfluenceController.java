@@ -2,19 +2,28 @@ package com.confluence.publisher.controller;
 
 import com.confluence.publisher.dto.ConfluencePublishRequest;
 import com.confluence.publisher.dto.PublishResponse;
+import com.confluence.publisher.dto.PublishTreeRequest;
+import com.confluence.publisher.dto.PublishTreeResponse;
 import com.confluence.publisher.entity.PublishLog;
 import com.confluence.publisher.service.PublishService;
+import com.confluence.publisher.service.PublishTreeJob;
+import com.confluence.publisher.service.PublishTreeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
 @RestController
 @RequestMapping("/api/confluence")
 @RequiredArgsConstructor
 public class ConfluenceController {
     
     private final PublishService publishService;
+    private final PublishTreeService publishTreeService;
     
     @PostMapping("/publish")
     public ResponseEntity<PublishResponse> publishNow(
@@ -28,5 +37,43 @@ public class ConfluenceController {
                 .build();
         return ResponseEntity.ok(response);
     }
+    
+    // Runs in the background; poll GET /publish-tree/{jobId} for per-page progress
+    @PostMapping("/publish-tree")
+    public ResponseEntity<PublishTreeResponse> publishTree(@RequestBody PublishTreeRequest request) {
+        PublishTreeJob job = publishTreeService.startJob(request.getRootPageId(), request.getSpaceKey());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(toResponse(job));
+    }
+    
+    @GetMapping("/publish-tree/{jobId}")
+    public ResponseEntity<PublishTreeResponse> getPublishTree(@PathVariable String jobId) {
+        return ResponseEntity.ok(toResponse(publishTreeService.getJob(jobId)));
+    }
+    
+    private PublishTreeResponse toResponse(PublishTreeJob job) {
+        // Read the status first: once it says finished, every node below is final
+        String status = job.getStatus();
+        return PublishTreeResponse.builder()
+                .jobId(job.getId())
+                .status(status)
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .total(job.getNodes().size())
+                .counts(job.getNodes().values().stream()
+                        .collect(Collectors.groupingBy(PublishTreeJob.Node::getStatus, TreeMap::new, Collectors.counting())))
+                .nodes(job.getNodes().values().stream()
+                        .map(node -> PublishTreeResponse.Node.builder()
+                                .pageId(node.getPageId())
+                                .parentPageId(node.getParentPageId())
+                                .depth(node.getDepth())
+                                .status(node.getStatus())
+                                .confluencePageId(node.getConfluencePageId())
+                                .message(node.getMessage())
+                                .startedAt(node.getStartedAt())
+                                .finishedAt(node.getFinishedAt())
+                                .build())
+                        .toList())
+                .build();
+    }
 }
 
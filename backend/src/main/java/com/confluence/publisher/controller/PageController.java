@@ -1,14 +1,19 @@
 package com.confluence.publisher.controller;
 
+import com.confluence.publisher.dto.PageBatchCreateRequest;
 import com.confluence.publisher.dto.PageCreateRequest;
 import com.confluence.publisher.dto.PageResponse;
 import com.confluence.publisher.entity.Page;
 import com.confluence.publisher.service.PageService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -22,33 +27,83 @@ public class PageController {
     
     @PostMapping
     public ResponseEntity<PageResponse> createPage(@Valid @RequestBody PageCreateRequest request) {
-        // Use default space from configuration if not provided in request
-        String spaceKey = request.getSpaceKey() != null && !request.getSpaceKey().isBlank() 
-            ? request.getSpaceKey() 
-            : appProperties.getConfluenceDefaultSpace();
-        
         Page page = pageService.createPage(
             request.getTitle(), 
             request.getContent(), 
-            spaceKey,
+            request.getContentFormat(),
+            resolveSpaceKey(request),
             request.getParentPageId(),
             request.getAttachmentIds()
         );
-        PageResponse response = PageResponse.builder()
+        return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(page));
+    }
+    
+    @PostMapping("/batch")
+    public ResponseEntity<List<PageResponse>> createPages(@Valid @RequestBody PageBatchCreateRequest request) {
+        List<PageService.NewPage> newPages = request.getPages().stream()
+                .map(page -> new PageService.NewPage(
+                        page.getTitle(),
+                        page.getContent(),
+                        page.getContentFormat(),
+                        resolveSpaceKey(page),
+                        page.getParentPageId(),
+                        page.getAttachmentIds()))
+                .toList();
+        List<PageResponse> responses = pageService.createPages(newPages).stream()
+                .map(this::toResponse)
+                .toList();
+        return ResponseEntity.status(HttpStatus.CREATED).body(responses);
+    }
+    
+    // The tag sent with a body is the one computed with that body, which may come from the cache and lag a
+    // change just committed. A client already holding the current version is answered without loading it.
+    @GetMapping("/{pageId}")
+    public ResponseEntity<PageResponse> getPage(@PathVariable Long pageId, WebRequest webRequest) {
+        String currentEtag = pageService.getPageEtag(pageId);
+        if (holdsVersion(webRequest, currentEtag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentEtag).build();
+        }
+        PageResponse response = pageService.getPage(pageId);
+        return ResponseEntity.ok().eTag(response.getEtag()).body(response);
+    }
+    
+    // Same ETag as the page itself: the rendered output only changes when the page or its attachments do
+    @GetMapping(value = "/{pageId}/preview", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> previewPage(@PathVariable Long pageId, WebRequest webRequest) {
+        String currentEtag = pageService.getPageEtag(pageId);
+        if (holdsVersion(webRequest, currentEtag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentEtag).build();
+        }
+        PageService.RenderedPage rendered = pageService.renderPage(pageId);
+        return ResponseEntity.ok().eTag(rendered.etag()).body(rendered.content());
+    }
+    
+    private static boolean holdsVersion(WebRequest webRequest, String etag) {
+        String ifNoneMatch = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        ETag current = ETag.create(etag);
+        return ETag.parse(ifNoneMatch).stream().anyMatch(tag -> tag.isWildcard() || tag.compare(current, false));
+    }
+    
+    // Use default space from configuration if not provided in request
+    private String resolveSpaceKey(PageCreateRequest request) {
+        return request.getSpaceKey() != null && !request.getSpaceKey().isBlank() 
+            ? request.getSpaceKey() 
+            : appProperties.getConfluenceDefaultSpace();
+    }
+    
+    private PageResponse toResponse(Page page) {
+        return PageResponse.builder()
                 .id(page.getId())
                 .title(page.getTitle())
                 .content(page.getContent())
+                .contentFormat(page.getContentFormat())
                 .spaceKey(page.getSpaceKey())
                 .parentPageId(page.getParentPageId())
                 .attachments(List.of()) // Attachments will be loaded on get
                 .build();
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
-    }
-    
-    @GetMapping("/{pageId}")
-    public ResponseEntity<PageResponse> getPage(@PathVariable Long pageId) {
-        PageResponse response = pageService.getPage(pageId);
-        return ResponseEntity.ok(response);
     }
 }
 
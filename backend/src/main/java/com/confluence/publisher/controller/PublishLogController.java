@@ -0,0 +1,74 @@
+package com.confluence.publisher.controller;
+
+import com.confluence.publisher.service.PublishLogArchiveService;
+import com.confluence.publisher.service.PublishLogExportService;
+import com.confluence.publisher.service.PublishLogFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/publish-logs")
+@RequiredArgsConstructor
+public class PublishLogController {
+    
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    
+    private final PublishLogExportService publishLogExportService;
+    private final PublishLogArchiveService publishLogArchiveService;
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) Long pageId,
+            @RequestParam(required = false) String spaceKey,
+            @RequestParam(required = false) String status) {
+        PublishLogFilter filter = new PublishLogFilter(from, to, pageId, spaceKey, status);
+        return switch (format.toLowerCase()) {
+            case "ndjson" -> ResponseEntity.ok()
+                    .contentType(NDJSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"publish-logs.ndjson\"")
+                    .body(out -> publishLogExportService.exportNdjson(filter, out));
+            case "csv" -> ResponseEntity.ok()
+                    .contentType(CSV)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"publish-logs.csv\"")
+                    .body(out -> publishLogExportService.exportCsv(filter, out));
+            default -> ResponseEntity.badRequest().build();
+        };
+    }
+    
+    // Logs moved out of the table by the retention job; from and to are required so only the
+    // day segments in that range are read
+    @GetMapping("/archive")
+    public ResponseEntity<StreamingResponseBody> readArchive(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) Long pageId,
+            @RequestParam(required = false) String spaceKey,
+            @RequestParam(required = false) String status) {
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        PublishLogFilter filter = new PublishLogFilter(from, to, pageId, spaceKey, status);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(out -> publishLogArchiveService.readArchive(filter, out));
+    }
+    
+    @GetMapping("/archive/segments")
+    public ResponseEntity<List<PublishLogArchiveService.SegmentInfo>> listArchiveSegments() throws IOException {
+        return ResponseEntity.ok(publishLogArchiveService.listSegments());
+    }
+}
+
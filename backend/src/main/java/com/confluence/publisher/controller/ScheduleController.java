@@ -6,10 +6,13 @@ import com.confluence.publisher.entity.Schedule;
 import com.confluence.publisher.service.ScheduleService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -18,6 +21,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ScheduleController {
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     private final ScheduleService scheduleService;
     
     @PostMapping
@@ -31,18 +36,34 @@ public class ScheduleController {
     }
     
     @GetMapping("/{scheduleId}")
-    public ResponseEntity<ScheduleResponse> getSchedule(@PathVariable Long scheduleId) {
+    public ResponseEntity<ScheduleResponse> getSchedule(@PathVariable Long scheduleId, WebRequest webRequest) {
+        String etag = scheduleService.getScheduleEtag(scheduleId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         Schedule schedule = scheduleService.getSchedule(scheduleId);
-        return ResponseEntity.ok(toResponse(schedule));
+        return ResponseEntity.ok().eTag(etag).body(toResponse(schedule));
     }
     
+    // The body stays a plain list; the cursor for the next page is returned in X-Next-Cursor
     @GetMapping
-    public ResponseEntity<List<ScheduleResponse>> listSchedules() {
-        List<Schedule> schedules = scheduleService.listSchedules(100);
-        List<ScheduleResponse> responses = schedules.stream()
+    public ResponseEntity<List<ScheduleResponse>> listSchedules(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long pageId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        ScheduleService.ScheduleSlice slice = scheduleService.listSchedules(
+                new ScheduleService.ScheduleFilter(status, pageId, from, to), cursor, limit);
+        List<ScheduleResponse> responses = slice.schedules().stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(responses);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (slice.nextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, String.valueOf(slice.nextCursor()));
+        }
+        return builder.body(responses);
     }
     
     private ScheduleResponse toResponse(Schedule schedule) {
@@ -51,6 +72,7 @@ public class ScheduleController {
                 .pageId(schedule.getPageId())
                 .status(schedule.getStatus())
                 .scheduledAt(schedule.getScheduledAt())
+                .nextAttemptAt(schedule.getNextAttemptAt())
                 .attemptCount(schedule.getAttemptCount())
                 .lastError(schedule.getLastError())
                 .build();
@@ -0,0 +1,65 @@
+package com.confluence.publisher.controller;
+
+import com.confluence.publisher.dto.AttachmentUploadResponse;
+import com.confluence.publisher.dto.UploadSessionCreateRequest;
+import com.confluence.publisher.dto.UploadSessionResponse;
+import com.confluence.publisher.entity.Attachment;
+import com.confluence.publisher.service.ChunkedUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/attachments/uploads")
+@RequiredArgsConstructor
+public class UploadSessionController {
+    
+    private static final String CHUNK_CHECKSUM_HEADER = "X-Chunk-SHA256";
+    
+    private final ChunkedUploadService chunkedUploadService;
+    
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> createSession(@Valid @RequestBody UploadSessionCreateRequest request) throws IOException {
+        return ResponseEntity.status(HttpStatus.CREATED).body(chunkedUploadService.createSession(request));
+    }
+    
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<UploadSessionResponse> getSession(@PathVariable String sessionId) {
+        return ResponseEntity.ok(chunkedUploadService.getSession(sessionId));
+    }
+    
+    // Raw chunk bytes as the request body (application/octet-stream), read as a stream
+    @PutMapping("/{sessionId}/chunks/{chunkIndex}")
+    public ResponseEntity<UploadSessionResponse> uploadChunk(
+            @PathVariable String sessionId,
+            @PathVariable int chunkIndex,
+            @RequestHeader(CHUNK_CHECKSUM_HEADER) String sha256,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(chunkedUploadService.writeChunk(sessionId, chunkIndex, sha256, request.getInputStream()));
+    }
+    
+    @PostMapping("/{sessionId}/complete")
+    public ResponseEntity<AttachmentUploadResponse> completeSession(
+            @PathVariable String sessionId,
+            @RequestParam(value = "sha256", required = false) String sha256) throws IOException {
+        Attachment attachment = chunkedUploadService.completeSession(sessionId, sha256);
+        AttachmentUploadResponse response = AttachmentUploadResponse.builder()
+                .id(attachment.getId())
+                .filename(attachment.getFilename())
+                .description(attachment.getDescription())
+                .build();
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+    
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Void> abortSession(@PathVariable String sessionId) throws IOException {
+        chunkedUploadService.abortSession(sessionId);
+        return ResponseEntity.noContent().build();
+    }
+}
+
@@ -0,0 +1,18 @@
+package com.confluence.publisher.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class PageBatchCreateRequest {
+    
+    @NotEmpty(message = "At least one page is required")
+    @Size(max = 10000, message = "At most 10000 pages per batch")
+    private List<@Valid PageCreateRequest> pages = new ArrayList<>();
+}
+
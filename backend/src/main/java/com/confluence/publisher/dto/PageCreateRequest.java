@@ -2,6 +2,7 @@ package com.confluence.publisher.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 
 import java.util.ArrayList;
@@ -16,6 +17,10 @@ public class PageCreateRequest {
     @NotBlank(message = "Content is required")
     private String content;
     
+    // Defaults to storage (Confluence XHTML); markdown is converted when the page is published
+    @Pattern(regexp = "storage|markdown", message = "Content format must be storage or markdown")
+    private String contentFormat;
+    
     // Space key is optional - will use default from configuration if not provided
     private String spaceKey;
     
@@ -1,5 +1,6 @@
 package com.confluence.publisher.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,9 +18,13 @@ public class PageResponse {
     private Long id;
     private String title;
     private String content;
+    private String contentFormat;
     private String spaceKey;
     private Long parentPageId;
     private List<AttachmentInfo> attachments = new ArrayList<>();
+    // Version of this body, sent as the ETag header rather than in the JSON
+    @JsonIgnore
+    private String etag;
     
     @Data
     @Builder
@@ -0,0 +1,33 @@
+package com.confluence.publisher.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublishLogRecord {
+    
+    private Long id;
+    private Long pageId;
+    private String provider;
+    private String spaceKey;
+    private String confluencePageId;
+    private String status;
+    private String message;
+    private Instant createdAt;
+    // Only archived records carry the fingerprints; exports leave them out
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String fingerprint;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String contentFingerprint;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String attachmentFingerprints;
+}
+
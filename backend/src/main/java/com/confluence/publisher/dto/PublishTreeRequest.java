@@ -0,0 +1,12 @@
+package com.confluence.publisher.dto;
+
+import lombok.Data;
+
+// Either the root of a subtree or a whole space
+@Data
+public class PublishTreeRequest {
+    
+    private Long rootPageId;
+    private String spaceKey;
+}
+
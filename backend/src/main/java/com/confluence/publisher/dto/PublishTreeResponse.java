@@ -0,0 +1,41 @@
+package com.confluence.publisher.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublishTreeResponse {
+    
+    private String jobId;
+    private String status;
+    private Instant createdAt;
+    private Instant finishedAt;
+    private Integer total;
+    private Map<String, Long> counts;
+    private List<Node> nodes;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Node {
+        private Long pageId;
+        private Long parentPageId;
+        private Integer depth;
+        private String status;
+        private String confluencePageId;
+        private String message;
+        private Instant startedAt;
+        private Instant finishedAt;
+    }
+}
+
@@ -17,6 +17,7 @@ public class ScheduleResponse {
     private Long pageId;
     private String status;
     private Instant scheduledAt;
+    private Instant nextAttemptAt;
     private Integer attemptCount;
     private String lastError;
 }
@@ -0,0 +1,26 @@
+package com.confluence.publisher.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class UploadSessionCreateRequest {
+    
+    @NotBlank(message = "Filename is required")
+    private String filename;
+    
+    private String contentType;
+    
+    private String description;
+    
+    @NotNull(message = "Total size is required")
+    @Positive
+    private Long totalSize;
+    
+    // Optional - the server default is used when not provided
+    @Positive
+    private Integer chunkSize;
+}
+
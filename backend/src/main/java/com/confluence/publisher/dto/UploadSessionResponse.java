@@ -0,0 +1,37 @@
+package com.confluence.publisher.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+    
+    private String id;
+    private String filename;
+    private String status;
+    private Long totalSize;
+    private Integer chunkSize;
+    private Integer chunkCount;
+    private Long receivedBytes;
+    private List<ByteRange> receivedRanges;
+    private List<Integer> missingChunks;
+    private Long attachmentId;
+    
+    // Inclusive byte offsets, like an HTTP Content-Range
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ByteRange {
+        private Long start;
+        private Long end;
+    }
+}
+
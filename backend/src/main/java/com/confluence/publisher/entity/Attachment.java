@@ -7,7 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "attachment")
+@Table(name = "attachment", indexes = @Index(name = "idx_attachment_content_hash", columnList = "content_hash"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -30,6 +30,10 @@ public class Attachment {
     @Column(nullable = false)
     private String storagePath;
     
+    // SHA-256 of the stored bytes; attachments with the same hash share one blob on disk
+    @Column(length = 64)
+    private String contentHash;
+    
     @Column(columnDefinition = "TEXT")
     private String description;
 }
@@ -0,0 +1,21 @@
+package com.confluence.publisher.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Ids from the "id_generator" row called name, allocated by BlockIdGenerator on the inserting transaction's
+// own connection. Unlike IDENTITY, the id is known before the insert, so Hibernate can batch the inserts.
+@IdGeneratorType(BlockIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface BlockId {
+    
+    String name();
+    
+    int maxBlockSize() default 100;
+}
+
@@ -0,0 +1,102 @@
+package com.confluence.publisher.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerationException;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Allocates id blocks with an UPDATE on the caller's connection, inside the caller's transaction. Hibernate's
+// table generator runs the UPDATE in a transaction of its own, which needs a second write connection: with the
+// single SQLite writer that waits on the caller once it has written anything.
+// A block is only used by the transaction that allocated it, because a rollback also undoes the allocation.
+// Blocks start at one id and double up to maxBlockSize, so small transactions leave no large gaps.
+public class BlockIdGenerator implements IdentifierGenerator {
+    
+    private static final String ALLOCATE_SQL =
+            "UPDATE id_generator SET next_val = next_val + ? WHERE name = ? RETURNING next_val";
+    
+    private final String name;
+    private final int maxBlockSize;
+    
+    public BlockIdGenerator(BlockId config) {
+        this.name = config.name();
+        this.maxBlockSize = Math.max(1, config.maxBlockSize());
+    }
+    
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Map<String, Block> blocks = transactionBlocks(session);
+        if (blocks == null) {
+            return allocate(session, 1);
+        }
+        Block block = blocks.get(name);
+        if (block == null || block.next == block.end) {
+            int size = block == null ? 1 : Math.min(maxBlockSize, block.size * 2);
+            long start = allocate(session, size);
+            block = new Block(start, start + size, size);
+            blocks.put(name, block);
+        }
+        return block.next++;
+    }
+    
+    // Returns the first id of a block of size ids; next_val always holds the first unallocated id
+    private long allocate(SharedSessionContractImplementor session, int size) {
+        Connection connection = session.getJdbcCoordinator().getLogicalConnection().getPhysicalConnection();
+        try (PreparedStatement statement = connection.prepareStatement(ALLOCATE_SQL)) {
+            statement.setInt(1, size);
+            statement.setString(2, name);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new IdentifierGenerationException("No id_generator row named " + name);
+                }
+                return resultSet.getLong(1) - size;
+            }
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper()
+                    .convert(e, "Could not allocate ids for " + name, ALLOCATE_SQL);
+        }
+    }
+    
+    // Blocks of the current transaction, keyed by generator name; null outside a transaction
+    @SuppressWarnings("unchecked")
+    private static Map<String, Block> transactionBlocks(SharedSessionContractImplementor session) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<String, Block> blocks = (Map<String, Block>) TransactionSynchronizationManager.getResource(session);
+        if (blocks == null) {
+            Map<String, Block> newBlocks = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(session, newBlocks);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(session);
+                }
+            });
+            blocks = newBlocks;
+        }
+        return blocks;
+    }
+    
+    private static final class Block {
+        
+        private long next;
+        private final long end;
+        private final int size;
+        
+        private Block(long next, long end, int size) {
+            this.next = next;
+            this.end = end;
+            this.size = size;
+        }
+    }
+}
+
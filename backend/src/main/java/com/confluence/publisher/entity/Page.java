@@ -11,15 +11,20 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.Instant;
 
 @Entity
-@Table(name = "page")
+// Tree publishing walks pages level by level through parent_page_id, or loads a whole space
+@Table(name = "page", indexes = {
+        @Index(name = "idx_page_parent_page_id", columnList = "parent_page_id"),
+        @Index(name = "idx_page_space_key", columnList = "space_key")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Page {
     
+    // Allocated ids instead of IDENTITY let Hibernate batch inserts (see BlockIdGenerator)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BlockId(name = "page")
     private Long id;
     
     @Column(nullable = false, length = 500)
@@ -28,6 +33,10 @@ public class Page {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
     
+    // "storage" or "markdown"; null for pages created before formats existed, which are storage
+    @Column(length = 20)
+    private String contentFormat;
+    
     @Column(nullable = false, length = 50)
     private String spaceKey;
     
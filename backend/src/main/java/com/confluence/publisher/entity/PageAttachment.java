@@ -14,8 +14,9 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class PageAttachment {
     
+    // Allocated ids instead of IDENTITY let Hibernate batch inserts (see BlockIdGenerator)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BlockId(name = "pageattachment")
     private Long id;
     
     @Column(nullable = false)
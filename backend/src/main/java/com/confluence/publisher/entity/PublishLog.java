@@ -10,15 +10,19 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.Instant;
 
 @Entity
-@Table(name = "publishlog")
+@Table(name = "publishlog", indexes = {
+        @Index(name = "idx_publishlog_created_at", columnList = "created_at"),
+        @Index(name = "idx_publishlog_page_id_id", columnList = "page_id, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class PublishLog {
     
+    // Allocated ids so the write-behind appender's batches go out as one JDBC batch (see BlockIdGenerator)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BlockId(name = "publishlog")
     private Long id;
     
     @Column(nullable = false)
@@ -37,6 +41,16 @@ public class PublishLog {
     @Column(columnDefinition = "TEXT")
     private String message;
     
+    // Hash of everything sent to the provider; a republish with the same value is skipped as "no-op"
+    @Column(length = 64)
+    private String fingerprint;
+    
+    @Column(length = 64)
+    private String contentFingerprint;
+    
+    @Column(columnDefinition = "TEXT")
+    private String attachmentFingerprints;
+    
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
@@ -9,7 +9,16 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 
 @Entity
-@Table(name = "schedule")
+// (status, next_attempt_at) backs the due query and (status, lease_expires_at) the expired-lease half of
+// the claim query; (status, id) and (page_id, id) back filtered listing, which pages by descending id,
+// and (scheduled_at, id) backs listing by a from/to range, which pages by descending (scheduled_at, id)
+@Table(name = "schedule", indexes = {
+        @Index(name = "idx_schedule_status_next_attempt", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_schedule_status_lease", columnList = "status, lease_expires_at"),
+        @Index(name = "idx_schedule_status_id", columnList = "status, id"),
+        @Index(name = "idx_schedule_page_id_id", columnList = "page_id, id"),
+        @Index(name = "idx_schedule_scheduled_at_id", columnList = "scheduled_at, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -26,6 +35,9 @@ public class Schedule {
     @Column(nullable = false)
     private Instant scheduledAt;
     
+    // When the schedule is next due: scheduledAt at first, pushed back by the retry policy after transient failures
+    private Instant nextAttemptAt;
+    
     @Column(nullable = false)
     @Builder.Default
     private String status = "queued";
@@ -36,5 +48,13 @@ public class Schedule {
     
     @Column(columnDefinition = "TEXT")
     private String lastError;
+    
+    private String claimedBy;
+    
+    // Identifies one claim; state changes on a claimed schedule only apply while this claim still holds it
+    @Column(length = 36)
+    private String claimToken;
+    
+    private Instant leaseExpiresAt;
 }
 
@@ -0,0 +1,35 @@
+package com.confluence.publisher.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "uploadchunk", uniqueConstraints = @UniqueConstraint(
+        name = "uk_uploadchunk_session_index", columnNames = {"session_id", "chunk_index"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadChunk {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 36)
+    private String sessionId;
+    
+    @Column(nullable = false)
+    private Integer chunkIndex;
+    
+    @Column(nullable = false)
+    private Long size;
+    
+    // SHA-256 the client sent and the written bytes matched
+    @Column(nullable = false, length = 64)
+    private String sha256;
+}
+
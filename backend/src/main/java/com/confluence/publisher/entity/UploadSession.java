@@ -0,0 +1,54 @@
+package com.confluence.publisher.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "uploadsession")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSession {
+    
+    // Random rather than sequential, since the id is all a client needs to write into the session
+    @Id
+    @Column(length = 36)
+    private String id;
+    
+    @Column(nullable = false)
+    private String filename;
+    
+    @Column(nullable = false)
+    private String contentType;
+    
+    @Column(columnDefinition = "TEXT")
+    private String description;
+    
+    @Column(nullable = false)
+    private Long totalSize;
+    
+    @Column(nullable = false)
+    private Integer chunkSize;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private String status = "open";
+    
+    private Long attachmentId;
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+    
+    // Last time a chunk was recorded or the session completed; sessions expire this long after it.
+    // Null for sessions created before it existed, which fall back to createdAt.
+    private Instant lastActivityAt;
+}
+
@@ -0,0 +1,10 @@
+package com.confluence.publisher.exception;
+
+// Invalid client input, answered with 400. Services throw it for checks the request DTOs cannot express.
+public class BadRequestException extends RuntimeException {
+    
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
+
@@ -1,5 +1,6 @@
 package com.confluence.publisher.exception;
 
+import com.confluence.publisher.provider.ProviderException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +16,22 @@ import java.util.Map;
 @Slf4j
 public class GlobalExceptionHandler {
     
+    @ExceptionHandler(ProviderException.class)
+    public ResponseEntity<Map<String, String>> handleProviderException(ProviderException e) {
+        log.error("Provider exception", e);
+        Map<String, String> error = new HashMap<>();
+        error.put("detail", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(error);
+    }
+    
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequestException(BadRequestException e) {
+        log.warn("Bad request: {}", e.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put("detail", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+    
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException e) {
         log.error("Runtime exception", e);
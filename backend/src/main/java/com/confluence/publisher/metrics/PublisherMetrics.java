@@ -0,0 +1,136 @@
+package com.confluence.publisher.metrics;
+
+import com.confluence.publisher.config.AppProperties;
+import com.confluence.publisher.repository.ScheduleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class PublisherMetrics {
+    
+    private static final List<String> PENDING_STATUSES = List.of("queued", "claimed");
+    
+    private final MeterRegistry meterRegistry;
+    private final ScheduleRepository scheduleRepository;
+    private final AppProperties appProperties;
+    private final MultiGauge queueDepth;
+    
+    public PublisherMetrics(MeterRegistry meterRegistry, ScheduleRepository scheduleRepository, AppProperties appProperties) {
+        this.meterRegistry = meterRegistry;
+        this.scheduleRepository = scheduleRepository;
+        this.appProperties = appProperties;
+        this.queueDepth = MultiGauge.builder("publisher.schedule.queue.depth")
+                .description("Pending schedules per status")
+                .register(meterRegistry);
+    }
+    
+    public Timer.Sample startTimer() {
+        return Timer.start(meterRegistry);
+    }
+    
+    public void recordPublish(Timer.Sample sample, String provider, String spaceKey, String outcome) {
+        sample.stop(Timer.builder("publisher.publish")
+                .description("Publish latency including the provider call")
+                .tags("provider", provider, "space", spaceKey, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+    
+    public void recordAttachmentTransfers(String provider, int uploaded, int failed) {
+        Counter.builder("publisher.attachment.transfers")
+                .description("Attachments sent to the provider")
+                .tags("provider", provider, "outcome", "uploaded")
+                .register(meterRegistry)
+                .increment(uploaded);
+        Counter.builder("publisher.attachment.transfers")
+                .description("Attachments sent to the provider")
+                .tags("provider", provider, "outcome", "failed")
+                .register(meterRegistry)
+                .increment(failed);
+    }
+    
+    public void recordScheduleLag(Duration lag) {
+        Timer.builder("publisher.schedule.lag")
+                .description("Time between a schedule's due time and its dispatch")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(lag.isNegative() ? Duration.ZERO : lag);
+    }
+    
+    public void recordAttempts(String outcome, int attempts) {
+        DistributionSummary.builder("publisher.schedule.attempts")
+                .description("Publish attempts a schedule needed before it finished")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(attempts);
+    }
+    
+    public void recordUpload(Timer.Sample sample, long bytes, String outcome) {
+        sample.stop(Timer.builder("publisher.upload.duration")
+                .description("Attachment upload duration")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        DistributionSummary.builder("publisher.upload.size")
+                .description("Attachment upload size")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(bytes);
+    }
+    
+    public void registerPublishLogQueue(Collection<?> queue) {
+        Gauge.builder("publisher.publishlog.queue.size", queue, Collection::size)
+                .description("Publish logs waiting for the write-behind appender")
+                .register(meterRegistry);
+    }
+    
+    public void recordPublishLogBackPressure() {
+        meterRegistry.counter("publisher.publishlog.backpressure").increment();
+    }
+    
+    public void recordPublishLogEnqueueWait(long nanos) {
+        Timer.builder("publisher.publishlog.enqueue.wait")
+                .description("Time a publish waited for room in the publish log queue")
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void recordPublishLogFlush(Timer.Sample sample, int batchSize, String outcome) {
+        sample.stop(Timer.builder("publisher.publishlog.flush")
+                .description("Duration of one batched publish log insert")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        DistributionSummary.builder("publisher.publishlog.batch.size")
+                .description("Publish logs inserted per transaction")
+                .register(meterRegistry)
+                .record(batchSize);
+    }
+    
+    // Counting on every scrape would hit SQLite per scrape, so the gauge is refreshed in the background.
+    // Only pending statuses are counted: posted and failed rows pile up forever and would make each count slower.
+    @Scheduled(fixedDelayString = "#{@appProperties.metricsQueueRefreshSeconds * 1000}")
+    public void refreshQueueDepth() {
+        if (!appProperties.getSchedulerEnabled()) {
+            return;
+        }
+        queueDepth.register(scheduleRepository.countByStatusIn(PENDING_STATUSES).stream()
+                .map(row -> MultiGauge.Row.of(Tags.of("status", row.getStatus()), row.getCount()))
+                .toList(), true);
+    }
+}
+
@@ -0,0 +1,72 @@
+package com.confluence.publisher.provider;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// AIMD limit on in-flight calls: grows by roughly one per limit's worth of fast successes,
+// and is cut multiplicatively on throttling, server errors or latency above the target
+public class AdaptiveConcurrencyLimiter {
+    
+    private static final double BACKOFF_FACTOR = 0.5;
+    private static final double SLOW_FACTOR = 0.9;
+    
+    private final double minLimit;
+    private final double maxLimit;
+    private final long latencyTargetNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration latencyTarget) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.latencyTargetNanos = latencyTarget.toNanos();
+    }
+    
+    public boolean acquire(Duration maxWait) throws InterruptedException {
+        long remaining = maxWait.toNanos();
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = permitReleased.awaitNanos(remaining);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void release(long latencyNanos, boolean overloaded) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (overloaded) {
+                limit = Math.max(minLimit, limit * BACKOFF_FACTOR);
+            } else if (latencyNanos > latencyTargetNanos) {
+                limit = Math.max(minLimit, limit * SLOW_FACTOR);
+            } else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
+
@@ -1,6 +1,7 @@
 package com.confluence.publisher.provider;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface BaseProvider {
     
@@ -8,12 +9,58 @@ public interface BaseProvider {
         String spaceKey,
         String title,
         String content,
-        Long parentPageId,
-        List<String> attachmentPaths
+        String parentConfluencePageId,
+        List<AttachmentFile> attachments
+    );
+    
+    default CompletableFuture<ProviderResult> publishPageAsync(
+        String spaceKey,
+        String title,
+        String content,
+        String parentConfluencePageId,
+        List<AttachmentFile> attachments
+    ) {
+        return CompletableFuture.supplyAsync(
+            () -> publishPage(spaceKey, title, content, parentConfluencePageId, attachments),
+            Thread::startVirtualThread);
+    }
+    
+    // Updates a page published before; content is null when only attachments changed,
+    // and attachments holds only the new or changed ones
+    ProviderResult updatePage(
+        String confluencePageId,
+        String spaceKey,
+        String title,
+        String content,
+        String parentConfluencePageId,
+        List<AttachmentFile> attachments
     );
     
     String getStatus(String confluencePageId);
     
-    record ProviderResult(String confluencePageId, String message) {}
+    // attachments holds one result per attachment passed in; the page itself was written even when some failed
+    record ProviderResult(String confluencePageId, String message, List<AttachmentResult> attachments) {
+        
+        public ProviderResult(String confluencePageId, String message) {
+            this(confluencePageId, message, List.of());
+        }
+        
+        public List<AttachmentResult> failedAttachments() {
+            return attachments.stream().filter(result -> !result.uploaded()).toList();
+        }
+    }
+    
+    record AttachmentFile(String path, String filename, String contentType) {}
+    
+    record AttachmentResult(AttachmentFile attachment, ProviderException error) {
+        
+        public static AttachmentResult uploaded(AttachmentFile attachment) {
+            return new AttachmentResult(attachment, null);
+        }
+        
+        public boolean uploaded() {
+            return error == null;
+        }
+    }
 }
 
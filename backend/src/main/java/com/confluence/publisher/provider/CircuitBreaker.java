@@ -0,0 +1,70 @@
+package com.confluence.publisher.provider;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Opens after a run of consecutive failures, then lets a single trial call through once the
+// open period has passed; the trial's outcome closes the circuit or opens it again
+public class CircuitBreaker {
+    
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+    
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openUntil = Instant.MIN;
+    
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDuration = openDuration;
+    }
+    
+    public synchronized boolean tryAcquire() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> {
+                if (Instant.now().isBefore(openUntil)) {
+                    yield false;
+                }
+                state = State.HALF_OPEN;
+                yield true;
+            }
+            case HALF_OPEN -> false;
+        };
+    }
+    
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+    
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openUntil = Instant.now().plus(openDuration);
+        }
+    }
+    
+    // A call that never reached the remote side must not leave a trial hanging: the next call becomes the trial
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openUntil = Instant.now();
+        }
+    }
+    
+    // When dispatch may resume, or null while the circuit lets calls through
+    public synchronized Instant pausedUntil() {
+        if (state == State.CLOSED) {
+            return null;
+        }
+        Instant now = Instant.now();
+        if (state == State.OPEN && !now.isBefore(openUntil)) {
+            return null;
+        }
+        return state == State.OPEN ? openUntil : now.plus(openDuration);
+    }
+}
+
@@ -0,0 +1,17 @@
+package com.confluence.publisher.provider;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+public class CircuitOpenException extends ProviderException {
+    
+    private final Instant retryAt;
+    
+    public CircuitOpenException(String message, Instant retryAt) {
+        super(503, message);
+        this.retryAt = retryAt;
+    }
+}
+
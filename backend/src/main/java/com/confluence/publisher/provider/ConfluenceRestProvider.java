@@ -0,0 +1,322 @@
+package com.confluence.publisher.provider;
+
+import com.confluence.publisher.config.AppProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+@Component
+@Slf4j
+public class ConfluenceRestProvider implements BaseProvider {
+    
+    private static final String HEX_DIGITS = "0123456789ABCDEF";
+    
+    private final AppProperties appProperties;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService httpExecutor;
+    // One shared client: it keeps connections alive and multiplexes requests over HTTP/2 when the server allows it
+    private final HttpClient httpClient;
+    
+    public ConfluenceRestProvider(AppProperties appProperties, ObjectMapper objectMapper) {
+        this.appProperties = appProperties;
+        this.objectMapper = objectMapper;
+        this.httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(appProperties.getConfluenceConnectTimeoutSeconds()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(httpExecutor)
+                .build();
+    }
+    
+    @Override
+    public ProviderResult publishPage(
+        String spaceKey,
+        String title,
+        String content,
+        String parentConfluencePageId,
+        List<AttachmentFile> attachments
+    ) {
+        try {
+            return publishPageAsync(spaceKey, title, content, parentConfluencePageId, attachments).join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<ProviderResult> publishPageAsync(
+        String spaceKey,
+        String title,
+        String content,
+        String parentConfluencePageId,
+        List<AttachmentFile> attachments
+    ) {
+        HttpRequest request = requestBuilder("/content")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        toJson(pageBody(spaceKey, title, content, parentConfluencePageId)), StandardCharsets.UTF_8))
+                .build();
+        
+        return send(request)
+                .thenApply(json -> json.path("id").asText())
+                .thenCompose(pageId -> uploadAttachments(pageId, attachments)
+                        .thenApply(results -> {
+                            log.info("Published page '{}' to Confluence space '{}' as {} with {} attachments",
+                                     title, spaceKey, pageId, attachments.size());
+                            return new ProviderResult(pageId, "Successfully published to Confluence", results);
+                        }));
+    }
+    
+    @Override
+    public ProviderResult updatePage(
+        String confluencePageId,
+        String spaceKey,
+        String title,
+        String content,
+        String parentConfluencePageId,
+        List<AttachmentFile> attachments
+    ) {
+        CompletableFuture<Void> bodyUpdate = content == null
+                ? CompletableFuture.completedFuture(null)
+                : send(requestBuilder("/content/" + confluencePageId + "?expand=version").GET().build())
+                        .thenCompose(current -> {
+                            Map<String, Object> body = pageBody(spaceKey, title, content, parentConfluencePageId);
+                            body.put("id", confluencePageId);
+                            body.put("version", Map.of("number", current.path("version").path("number").asInt() + 1));
+                            return send(requestBuilder("/content/" + confluencePageId)
+                                    .header("Content-Type", "application/json")
+                                    .PUT(HttpRequest.BodyPublishers.ofString(toJson(body), StandardCharsets.UTF_8))
+                                    .build());
+                        })
+                        .thenApply(json -> null);
+        try {
+            return bodyUpdate
+                    .thenCompose(ignored -> uploadAttachments(confluencePageId, attachments))
+                    .thenApply(results -> {
+                        log.info("Updated Confluence page {} (body changed: {}, attachments: {})",
+                                 confluencePageId, content != null, attachments.size());
+                        return new ProviderResult(confluencePageId, "Successfully updated in Confluence", results);
+                    })
+                    .join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+    
+    @Override
+    public String getStatus(String confluencePageId) {
+        HttpRequest request = requestBuilder("/content/" + confluencePageId).GET().build();
+        try {
+            return send(request).join().path("status").asText("unknown");
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        httpClient.close();
+        httpExecutor.close();
+    }
+    
+    private Map<String, Object> pageBody(String spaceKey, String title, String content, String parentConfluencePageId) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("type", "page");
+        body.put("title", title);
+        body.put("space", Map.of("key", spaceKey));
+        body.put("body", Map.of("storage", Map.of("value", content, "representation", "storage")));
+        if (parentConfluencePageId != null) {
+            body.put("ancestors", List.of(Map.of("id", parentConfluencePageId)));
+        }
+        return body;
+    }
+    
+    // Uploads run in up to providerAttachmentParallelism lanes that each take the next pending attachment,
+    // so one large file does not hold back the rest. A failed upload is retried on its own and then
+    // reported in its result instead of failing the call, because the page body is already written.
+    private CompletableFuture<List<AttachmentResult>> uploadAttachments(String pageId, List<AttachmentFile> attachments) {
+        AttachmentResult[] results = new AttachmentResult[attachments.size()];
+        AtomicInteger next = new AtomicInteger();
+        int lanes = Math.min(attachments.size(), Math.max(1, appProperties.getProviderAttachmentParallelism()));
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[lanes];
+        for (int i = 0; i < lanes; i++) {
+            workers[i] = uploadNext(pageId, attachments, next, results);
+        }
+        return CompletableFuture.allOf(workers).thenApply(ignored -> Arrays.asList(results));
+    }
+    
+    private CompletableFuture<Void> uploadNext(String pageId, List<AttachmentFile> attachments,
+                                               AtomicInteger next, AttachmentResult[] results) {
+        int index = next.getAndIncrement();
+        if (index >= attachments.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        AttachmentFile attachment = attachments.get(index);
+        return uploadWithRetry(pageId, attachment, 1)
+                .handle((ignored, e) -> {
+                    if (e == null) {
+                        results[index] = AttachmentResult.uploaded(attachment);
+                    } else {
+                        ProviderException error = asProviderException(causeOf(e));
+                        log.warn("Failed to upload attachment '{}' to Confluence page {}: {}",
+                                 attachment.filename(), pageId, error.getMessage());
+                        results[index] = new AttachmentResult(attachment, error);
+                    }
+                    return null;
+                })
+                .thenComposeAsync(ignored -> uploadNext(pageId, attachments, next, results), httpExecutor);
+    }
+    
+    private CompletableFuture<Void> uploadWithRetry(String pageId, AttachmentFile attachment, int attempt) {
+        return uploadAttachment(pageId, attachment)
+                .handle((ignored, e) -> {
+                    if (e == null) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    ProviderException error = asProviderException(causeOf(e));
+                    if (!error.isRetryable() || attempt > appProperties.getProviderAttachmentRetries()) {
+                        return CompletableFuture.<Void>failedFuture(error);
+                    }
+                    long backoffMs = appProperties.getProviderAttachmentRetryBackoffMs() * (1L << (attempt - 1));
+                    log.debug("Retrying attachment '{}' of Confluence page {} in {} ms: {}",
+                              attachment.filename(), pageId, backoffMs, error.getMessage());
+                    Executor delayed = CompletableFuture.delayedExecutor(backoffMs, TimeUnit.MILLISECONDS, httpExecutor);
+                    return CompletableFuture.supplyAsync(() -> null, delayed)
+                            .thenCompose(retry -> uploadWithRetry(pageId, attachment, attempt + 1));
+                })
+                .thenCompose(Function.identity());
+    }
+    
+    private CompletableFuture<Void> uploadAttachment(String pageId, AttachmentFile attachment) {
+        String boundary = "confluence-publisher-" + UUID.randomUUID();
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: " + contentDisposition(attachment.filename()) + "\r\n"
+                + "Content-Type: " + attachment.contentType() + "\r\n\r\n";
+        String tail = "\r\n--" + boundary + "--\r\n";
+        
+        HttpRequest.BodyPublisher fileBody;
+        try {
+            // Streams the file from disk through a FileChannel instead of loading it into memory; its known
+            // length lets the request go out with a Content-Length rather than chunked encoding
+            fileBody = HttpRequest.BodyPublishers.ofFile(Path.of(attachment.path()));
+        } catch (FileNotFoundException e) {
+            return CompletableFuture.failedFuture(
+                    new ProviderException("Attachment file not found: " + attachment.path(), e));
+        }
+        
+        HttpRequest request = requestBuilder("/content/" + pageId + "/child/attachment")
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .header("X-Atlassian-Token", "no-check")
+                // PUT creates the attachment or adds a new version when the page already has one with this name
+                .PUT(HttpRequest.BodyPublishers.concat(
+                        HttpRequest.BodyPublishers.ofString(head, StandardCharsets.UTF_8),
+                        fileBody,
+                        HttpRequest.BodyPublishers.ofString(tail, StandardCharsets.UTF_8)))
+                .build();
+        return send(request).thenApply(json -> null);
+    }
+    
+    // Quotes, backslashes and control characters (CR/LF above all) would end the parameter or the header
+    // early, so the plain filename drops them; filename* carries the exact name percent-encoded (RFC 5987)
+    static String contentDisposition(String filename) {
+        String plain = filename.replaceAll("[\\p{Cc}\"\\\\]", "");
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : filename.getBytes(StandardCharsets.UTF_8)) {
+            int c = b & 0xff;
+            if (isAttrChar(c)) {
+                encoded.append((char) c);
+            } else {
+                encoded.append('%').append(HEX_DIGITS.charAt(c >> 4)).append(HEX_DIGITS.charAt(c & 0xf));
+            }
+        }
+        return "form-data; name=\"file\"; filename=\"" + (plain.isBlank() ? "attachment" : plain) + "\""
+                + "; filename*=UTF-8''" + encoded;
+    }
+    
+    private static boolean isAttrChar(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || "!#$&+-.^_`|~".indexOf(c) >= 0;
+    }
+    
+    private CompletableFuture<JsonNode> send(HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .exceptionally(e -> {
+                    throw new ProviderException("Confluence request failed: " + request.uri(), causeOf(e));
+                })
+                .thenApply(response -> {
+                    if (response.statusCode() >= 300) {
+                        throw new ProviderException(response.statusCode(),
+                                "Confluence returned " + response.statusCode() + " for "
+                                        + request.method() + " " + request.uri() + ": " + response.body());
+                    }
+                    try {
+                        return objectMapper.readTree(response.body());
+                    } catch (JsonProcessingException e) {
+                        throw new ProviderException("Unexpected Confluence response: " + response.body(), e);
+                    }
+                });
+    }
+    
+    private HttpRequest.Builder requestBuilder(String path) {
+        String baseUrl = appProperties.getConfluenceUrl().replaceAll("/+$", "");
+        String credentials = appProperties.getConfluenceUsername() + ":" + appProperties.getConfluenceApiToken();
+        return HttpRequest.newBuilder(URI.create(baseUrl + appProperties.getConfluenceApiPath() + path))
+                .timeout(Duration.ofSeconds(appProperties.getConfluenceRequestTimeoutSeconds()))
+                .header("Accept", "application/json")
+                .header("Authorization", "Basic " + Base64.getEncoder()
+                        .encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize Confluence request", e);
+        }
+    }
+    
+    private static Throwable causeOf(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+    
+    private static ProviderException asProviderException(Throwable e) {
+        return e instanceof ProviderException providerException
+                ? providerException
+                : new ProviderException(e.getMessage(), e);
+    }
+    
+    private static RuntimeException unwrap(Throwable e) {
+        Throwable cause = causeOf(e);
+        return cause instanceof RuntimeException runtimeException
+                ? runtimeException
+                : new ProviderException(cause.getMessage(), cause);
+    }
+}
+
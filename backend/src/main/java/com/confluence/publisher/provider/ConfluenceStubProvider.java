@@ -15,14 +15,28 @@ public class ConfluenceStubProvider implements BaseProvider {
         String spaceKey,
         String title,
         String content,
-        Long parentPageId,
-        List<String> attachmentPaths
+        String parentConfluencePageId,
+        List<AttachmentFile> attachments
     ) {
         String pageId = "CONF-" + UUID.randomUUID().toString().substring(0, 8);
         log.info("Stub: Publishing page '{}' to Confluence space '{}' (parent: {})", 
-                 title, spaceKey, parentPageId);
-        log.info("Stub: Page ID: {}, Attachments: {}", pageId, attachmentPaths.size());
-        return new ProviderResult(pageId, "Successfully published to Confluence (stub)");
+                 title, spaceKey, parentConfluencePageId);
+        log.info("Stub: Page ID: {}, Attachments: {}", pageId, attachments.size());
+        return new ProviderResult(pageId, "Successfully published to Confluence (stub)", uploaded(attachments));
+    }
+    
+    @Override
+    public ProviderResult updatePage(
+        String confluencePageId,
+        String spaceKey,
+        String title,
+        String content,
+        String parentConfluencePageId,
+        List<AttachmentFile> attachments
+    ) {
+        log.info("Stub: Updating page {} '{}' in Confluence space '{}' (body changed: {}, attachments: {})",
+                 confluencePageId, title, spaceKey, content != null, attachments.size());
+        return new ProviderResult(confluencePageId, "Successfully updated in Confluence (stub)", uploaded(attachments));
     }
     
     @Override
@@ -30,5 +44,9 @@ public class ConfluenceStubProvider implements BaseProvider {
         log.info("Stub: Getting status for Confluence page {}", confluencePageId);
         return "published";
     }
+    
+    private static List<AttachmentResult> uploaded(List<AttachmentFile> attachments) {
+        return attachments.stream().map(AttachmentResult::uploaded).toList();
+    }
 }
 
@@ -0,0 +1,165 @@
+package com.confluence.publisher.provider;
+
+import com.confluence.publisher.config.AppProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Decorates a provider with a circuit breaker, token buckets per provider and per space,
+// and an adaptive (AIMD) concurrency limit driven by latency and 429/5xx responses
+@Slf4j
+public class GuardedProvider implements BaseProvider {
+    
+    private final BaseProvider delegate;
+    private final String name;
+    private final AppProperties appProperties;
+    private final CircuitBreaker circuitBreaker;
+    private final TokenBucket providerBucket;
+    private final Map<String, TokenBucket> spaceBuckets = new ConcurrentHashMap<>();
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    
+    public GuardedProvider(BaseProvider delegate, String name, AppProperties appProperties) {
+        this.delegate = delegate;
+        this.name = name;
+        this.appProperties = appProperties;
+        this.circuitBreaker = new CircuitBreaker(
+                appProperties.getCircuitBreakerFailureThreshold(),
+                Duration.ofSeconds(appProperties.getCircuitBreakerOpenSeconds()));
+        this.providerBucket = new TokenBucket(
+                appProperties.getProviderRateLimitPerSecond(),
+                appProperties.getProviderRateLimitBurst());
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(
+                appProperties.getProviderConcurrencyInitial(),
+                appProperties.getProviderConcurrencyMin(),
+                appProperties.getProviderConcurrencyMax(),
+                Duration.ofMillis(appProperties.getProviderLatencyTargetMs()));
+    }
+    
+    @Override
+    public ProviderResult publishPage(
+        String spaceKey,
+        String title,
+        String content,
+        String parentConfluencePageId,
+        List<AttachmentFile> attachments
+    ) {
+        return guarded(spaceKey,
+                () -> delegate.publishPage(spaceKey, title, content, parentConfluencePageId, attachments));
+    }
+    
+    @Override
+    public ProviderResult updatePage(
+        String confluencePageId,
+        String spaceKey,
+        String title,
+        String content,
+        String parentConfluencePageId,
+        List<AttachmentFile> attachments
+    ) {
+        return guarded(spaceKey,
+                () -> delegate.updatePage(confluencePageId, spaceKey, title, content, parentConfluencePageId, attachments));
+    }
+    
+    @Override
+    public String getStatus(String confluencePageId) {
+        return delegate.getStatus(confluencePageId);
+    }
+    
+    public Instant pausedUntil() {
+        return circuitBreaker.pausedUntil();
+    }
+    
+    private ProviderResult guarded(String spaceKey, Supplier<ProviderResult> call) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new CircuitOpenException("Circuit open for provider " + name, circuitBreaker.pausedUntil());
+        }
+        
+        boolean acquired = false;
+        long start = 0;
+        try {
+            Duration maxWait = Duration.ofSeconds(appProperties.getProviderRateLimitMaxWaitSeconds());
+            awaitTokens(spaceKey, maxWait);
+            if (!concurrencyLimiter.acquire(maxWait)) {
+                throw new LocalThrottleException("Concurrency limit of " + concurrencyLimiter.getLimit()
+                        + " reached for provider " + name, Instant.now().plus(maxWait));
+            }
+            acquired = true;
+            start = System.nanoTime();
+            ProviderResult result = call.get();
+            // The page was written, but attachments throttled or failed by the server still signal overload
+            boolean overloaded = result.failedAttachments().stream()
+                    .anyMatch(attachment -> attachment.error().isRetryable());
+            concurrencyLimiter.release(perRequestLatency(System.nanoTime() - start, result.attachments().size()), overloaded);
+            if (overloaded) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.onIgnored();
+            throw new ProviderException("Interrupted while waiting for provider " + name, e);
+        } catch (ProviderException e) {
+            boolean overloaded = e.isRetryable();
+            if (acquired) {
+                concurrencyLimiter.release(System.nanoTime() - start, overloaded);
+            }
+            if (!acquired) {
+                circuitBreaker.onIgnored();
+            } else if (overloaded) {
+                circuitBreaker.onFailure();
+            } else {
+                // The remote side answered (e.g. 4xx for a bad request), so it is healthy
+                circuitBreaker.onSuccess();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            if (acquired) {
+                concurrencyLimiter.release(System.nanoTime() - start, false);
+            }
+            circuitBreaker.onIgnored();
+            throw e;
+        }
+    }
+    
+    // Takes a token from both the provider and the space bucket or from neither, then waits for the later one
+    private void awaitTokens(String spaceKey, Duration maxWait) throws InterruptedException {
+        TokenBucket spaceBucket = spaceBuckets.computeIfAbsent(spaceKey, key -> new TokenBucket(
+                appProperties.getProviderSpaceRateLimitPerSecond(),
+                appProperties.getProviderSpaceRateLimitBurst()));
+        Duration providerWait = providerBucket.reserve(maxWait);
+        if (providerWait == null) {
+            throw new LocalThrottleException("Rate limit exceeded for provider " + name, Instant.now().plus(maxWait));
+        }
+        Duration spaceWait = spaceBucket.reserve(maxWait);
+        if (spaceWait == null) {
+            providerBucket.refund();
+            throw new LocalThrottleException("Rate limit exceeded for space " + spaceKey, Instant.now().plus(maxWait));
+        }
+        Duration wait = providerWait.compareTo(spaceWait) >= 0 ? providerWait : spaceWait;
+        if (!wait.isZero()) {
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                providerBucket.refund();
+                spaceBucket.refund();
+                throw e;
+            }
+        }
+    }
+    
+    // A call also uploads its attachments, providerAttachmentParallelism at a time. Dividing by the number of
+    // request rounds keeps a page with many attachments from reading as a slow provider to the AIMD limit.
+    private long perRequestLatency(long latencyNanos, int attachmentCount) {
+        int lanes = Math.max(1, appProperties.getProviderAttachmentParallelism());
+        int rounds = 1 + (attachmentCount + lanes - 1) / lanes;
+        return latencyNanos / rounds;
+    }
+}
+
@@ -0,0 +1,18 @@
+package com.confluence.publisher.provider;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+// Rejected by our own rate or concurrency limit before the provider was called
+@Getter
+public class LocalThrottleException extends ProviderException {
+    
+    private final Instant retryAt;
+    
+    public LocalThrottleException(String message, Instant retryAt) {
+        super(429, message);
+        this.retryAt = retryAt;
+    }
+}
+
@@ -0,0 +1,25 @@
+package com.confluence.publisher.provider;
+
+import lombok.Getter;
+
+@Getter
+public class ProviderException extends RuntimeException {
+    
+    // 0 when the remote side never answered (connection refused, timeout, I/O error)
+    private final int statusCode;
+    
+    public ProviderException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+    
+    public ProviderException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = 0;
+    }
+    
+    public boolean isRetryable() {
+        return statusCode == 0 || statusCode == 429 || statusCode >= 500;
+    }
+}
+
@@ -4,23 +4,46 @@ import com.confluence.publisher.config.AppProperties;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Component
 @RequiredArgsConstructor
 public class ProviderFactory {
     
     private final AppProperties appProperties;
     private final ConfluenceStubProvider stubProvider;
+    private final ConfluenceRestProvider restProvider;
+    private final SimulatedProvider simulatedProvider;
+    private final Map<String, GuardedProvider> guardedProviders = new ConcurrentHashMap<>();
     
     public BaseProvider getProvider() {
+        return getGuardedProvider();
+    }
+    
+    public String getProviderName() {
+        return appProperties.getProvider();
+    }
+    
+    // When the current provider's circuit is open, dispatch should wait until this instant; null otherwise
+    public Instant pausedUntil() {
+        return getGuardedProvider().pausedUntil();
+    }
+    
+    private GuardedProvider getGuardedProvider() {
         String providerName = appProperties.getProvider().toLowerCase();
+        return guardedProviders.computeIfAbsent(providerName,
+                name -> new GuardedProvider(resolveProvider(name), name, appProperties));
+    }
+    
+    private BaseProvider resolveProvider(String providerName) {
         return switch (providerName) {
+            case "confluence", "confluence-rest" -> restProvider;
             case "stub" -> stubProvider;
+            case "simulated" -> simulatedProvider;
             default -> stubProvider;
         };
     }
-    
-    public String getProviderName() {
-        return appProperties.getProvider();
-    }
 }
 
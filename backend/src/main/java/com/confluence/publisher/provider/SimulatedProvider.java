@@ -0,0 +1,134 @@
+package com.confluence.publisher.provider;
+
+import com.confluence.publisher.config.AppProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpTimeoutException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Stands in for Confluence in load tests: each call sleeps for a log-normally distributed latency
+// and then fails with a 5xx, a 429 or a timeout at the configured rates
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SimulatedProvider implements BaseProvider {
+    
+    // z-score of the 99th percentile of a standard normal distribution
+    private static final double Z_99 = 2.326;
+    
+    private final AppProperties appProperties;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    
+    @Override
+    public ProviderResult publishPage(
+        String spaceKey,
+        String title,
+        String content,
+        String parentConfluencePageId,
+        List<AttachmentFile> attachments
+    ) {
+        simulateCall(attachments.size());
+        return new ProviderResult("SIM-" + UUID.randomUUID().toString().substring(0, 8), "Published (simulated)",
+                simulateAttachments(attachments));
+    }
+    
+    @Override
+    public ProviderResult updatePage(
+        String confluencePageId,
+        String spaceKey,
+        String title,
+        String content,
+        String parentConfluencePageId,
+        List<AttachmentFile> attachments
+    ) {
+        simulateCall(attachments.size());
+        return new ProviderResult(confluencePageId, "Updated (simulated)", simulateAttachments(attachments));
+    }
+    
+    @Override
+    public String getStatus(String confluencePageId) {
+        return "published";
+    }
+    
+    public long getCalls() {
+        return calls.sum();
+    }
+    
+    public long getErrors() {
+        return errors.sum();
+    }
+    
+    public long getThrottled() {
+        return throttled.sum();
+    }
+    
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+    
+    private void simulateCall(int attachmentCount) {
+        calls.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Attachments upload in parallel lanes, so they add one attachment latency per round
+        int parallelism = Math.max(1, appProperties.getProviderAttachmentParallelism());
+        long attachmentRounds = (attachmentCount + parallelism - 1) / parallelism;
+        long latencyMs = sampleLatencyMs(random) + attachmentRounds * appProperties.getSimulatedAttachmentLatencyMs();
+        long timeoutMs = appProperties.getSimulatedTimeoutMs();
+        if (latencyMs > timeoutMs) {
+            sleep(timeoutMs);
+            timeouts.increment();
+            throw new ProviderException("Simulated request timed out",
+                    new HttpTimeoutException("request timed out after " + timeoutMs + " ms"));
+        }
+        sleep(latencyMs);
+        double roll = random.nextDouble();
+        if (roll < appProperties.getSimulatedThrottleRate()) {
+            throttled.increment();
+            throw new ProviderException(429, "Simulated rate limit");
+        }
+        if (roll < appProperties.getSimulatedThrottleRate() + appProperties.getSimulatedErrorRate()) {
+            errors.increment();
+            throw new ProviderException(503, "Simulated server error");
+        }
+    }
+    
+    // Each attachment fails on its own at the error rate, after the page body went through
+    private List<AttachmentResult> simulateAttachments(List<AttachmentFile> attachments) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return attachments.stream()
+                .map(attachment -> {
+                    if (random.nextDouble() < appProperties.getSimulatedErrorRate()) {
+                        errors.increment();
+                        return new AttachmentResult(attachment,
+                                new ProviderException(503, "Simulated attachment upload error"));
+                    }
+                    return AttachmentResult.uploaded(attachment);
+                })
+                .toList();
+    }
+    
+    private long sampleLatencyMs(ThreadLocalRandom random) {
+        double median = Math.max(1, appProperties.getSimulatedLatencyMedianMs());
+        double p99 = Math.max(median, appProperties.getSimulatedLatencyP99Ms());
+        double sigma = Math.log(p99 / median) / Z_99;
+        return Math.round(median * Math.exp(sigma * random.nextGaussian()));
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProviderException("Interrupted during simulated call", e);
+        }
+    }
+}
+
@@ -0,0 +1,40 @@
+package com.confluence.publisher.provider;
+
+import java.time.Duration;
+
+public class TokenBucket {
+    
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+    
+    public TokenBucket(double ratePerSecond, double burst) {
+        this.capacity = Math.max(1, burst);
+        this.tokensPerNano = ratePerSecond / 1_000_000_000.0;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+    
+    // Reserves one token and returns how long the caller has to wait for it, or null when that
+    // would exceed maxWait (in which case nothing is reserved)
+    public synchronized Duration reserve(Duration maxWait) {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+        
+        double deficit = 1 - tokens;
+        long waitNanos = deficit <= 0 ? 0 : (long) Math.ceil(deficit / tokensPerNano);
+        if (waitNanos > maxWait.toNanos()) {
+            return null;
+        }
+        tokens -= 1;
+        return Duration.ofNanos(waitNanos);
+    }
+    
+    // Hands back a token reserved by reserve() that ended up unused
+    public synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+}
+
@@ -14,6 +14,33 @@ public interface PageAttachmentRepository extends JpaRepository<PageAttachment,
     @Query("SELECT pa FROM PageAttachment pa WHERE pa.pageId = :pageId ORDER BY pa.position")
     List<PageAttachment> findByPageIdOrderByPosition(@Param("pageId") Long pageId);
     
+    @Query("SELECT a.id AS id, a.filename AS filename, a.description AS description, " +
+           "a.storagePath AS storagePath, a.contentType AS contentType, a.contentHash AS contentHash, pa.position AS position " +
+           "FROM PageAttachment pa JOIN Attachment a ON a.id = pa.attachmentId " +
+           "WHERE pa.pageId = :pageId ORDER BY pa.position")
+    List<AttachmentView> findAttachmentsByPageId(@Param("pageId") Long pageId);
+    
+    @Query("SELECT DISTINCT pa.pageId FROM PageAttachment pa WHERE pa.attachmentId = :attachmentId")
+    List<Long> findPageIdsByAttachmentId(@Param("attachmentId") Long attachmentId);
+    
     void deleteByPageId(Long pageId);
+    
+    void deleteByAttachmentId(Long attachmentId);
+    
+    interface AttachmentView {
+        Long getId();
+        
+        String getFilename();
+        
+        String getDescription();
+        
+        String getStoragePath();
+        
+        String getContentType();
+        
+        String getContentHash();
+        
+        Integer getPosition();
+    }
 }
 
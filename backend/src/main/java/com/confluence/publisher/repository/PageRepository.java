@@ -2,9 +2,53 @@ package com.confluence.publisher.repository;
 
 import com.confluence.publisher.entity.Page;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface PageRepository extends JpaRepository<Page, Long> {
+    
+    @Query("SELECT p.id AS id, p.spaceKey AS spaceKey FROM Page p WHERE p.id IN :ids")
+    List<SpaceKeyView> findSpaceKeysByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT p.id AS id, p.parentPageId AS parentPageId FROM Page p WHERE p.parentPageId IN :parentIds")
+    List<TreeNodeView> findTreeNodesByParentPageIdIn(@Param("parentIds") Collection<Long> parentIds);
+    
+    @Query("SELECT p.id AS id, p.parentPageId AS parentPageId FROM Page p WHERE p.spaceKey = :spaceKey ORDER BY p.id")
+    List<TreeNodeView> findTreeNodesBySpaceKey(@Param("spaceKey") String spaceKey);
+    
+    // Everything GET /api/pages/{id} returns can only change through these columns: the page row's
+    // update timestamp and the set of linked attachments (links are only ever removed)
+    @Query("SELECT p.updatedAt AS updatedAt, " +
+           "(SELECT COUNT(pa) FROM PageAttachment pa WHERE pa.pageId = p.id) AS attachmentCount, " +
+           "(SELECT COALESCE(SUM(pa.attachmentId), 0) FROM PageAttachment pa WHERE pa.pageId = p.id) AS attachmentIdSum " +
+           "FROM Page p WHERE p.id = :id")
+    Optional<VersionView> findVersionById(@Param("id") Long id);
+    
+    interface VersionView {
+        Instant getUpdatedAt();
+        
+        Long getAttachmentCount();
+        
+        Long getAttachmentIdSum();
+    }
+    
+    interface TreeNodeView {
+        Long getId();
+        
+        Long getParentPageId();
+    }
+    
+    interface SpaceKeyView {
+        Long getId();
+        
+        String getSpaceKey();
+    }
 }
 
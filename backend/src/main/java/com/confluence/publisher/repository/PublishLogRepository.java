@@ -4,7 +4,12 @@ import com.confluence.publisher.entity.PublishLog;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Optional;
+
 @Repository
 public interface PublishLogRepository extends JpaRepository<PublishLog, Long> {
+    
+    Optional<PublishLog> findFirstByPageIdAndProviderAndStatusInOrderByIdDesc(Long pageId, String provider, Collection<String> statuses);
 }
 
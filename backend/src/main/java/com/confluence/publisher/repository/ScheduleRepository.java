@@ -1,18 +1,108 @@
 package com.confluence.publisher.repository;
 
 import com.confluence.publisher.entity.Schedule;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
+public interface ScheduleRepository extends JpaRepository<Schedule, Long>, JpaSpecificationExecutor<Schedule> {
     
-    @Query("SELECT s FROM Schedule s WHERE s.status = 'queued' AND s.scheduledAt <= :now ORDER BY s.scheduledAt")
+    @Query("SELECT s FROM Schedule s WHERE s.status = 'queued' AND s.nextAttemptAt <= :now ORDER BY s.nextAttemptAt")
     List<Schedule> findQueuedSchedulesBefore(@Param("now") Instant now);
+    
+    @Query("SELECT s.id FROM Schedule s WHERE (s.status = 'queued' AND s.nextAttemptAt <= :now) " +
+           "OR (s.status = 'claimed' AND s.leaseExpiresAt < :now) ORDER BY s.nextAttemptAt")
+    List<Long> findClaimableScheduleIds(@Param("now") Instant now, Pageable pageable);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Schedule s SET s.status = 'claimed', s.claimedBy = :owner, s.claimToken = :claimToken, " +
+           "s.leaseExpiresAt = :leaseExpiresAt " +
+           "WHERE s.id IN :ids AND ((s.status = 'queued' AND s.nextAttemptAt <= :now) " +
+           "OR (s.status = 'claimed' AND s.leaseExpiresAt < :now))")
+    int claimSchedules(@Param("ids") Collection<Long> ids,
+                       @Param("owner") String owner,
+                       @Param("claimToken") String claimToken,
+                       @Param("leaseExpiresAt") Instant leaseExpiresAt,
+                       @Param("now") Instant now);
+    
+    @Query("SELECT s FROM Schedule s WHERE s.id IN :ids AND s.status = 'claimed' AND s.claimedBy = :owner " +
+           "AND s.claimToken = :claimToken ORDER BY s.nextAttemptAt")
+    List<Schedule> findClaimedSchedules(@Param("ids") Collection<Long> ids,
+                                        @Param("owner") String owner,
+                                        @Param("claimToken") String claimToken);
+    
+    // The updates below are fenced on the claim: they touch no row once the lease was taken over by another claim
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Schedule s SET s.leaseExpiresAt = :leaseExpiresAt " +
+           "WHERE s.id = :id AND s.status = 'claimed' AND s.claimedBy = :owner AND s.claimToken = :claimToken")
+    int renewLease(@Param("id") Long id,
+                   @Param("owner") String owner,
+                   @Param("claimToken") String claimToken,
+                   @Param("leaseExpiresAt") Instant leaseExpiresAt);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Schedule s SET s.status = :status, s.attemptCount = s.attemptCount + :attempts, s.lastError = :lastError, " +
+           "s.nextAttemptAt = :nextAttemptAt, s.claimedBy = NULL, s.claimToken = NULL, s.leaseExpiresAt = NULL " +
+           "WHERE s.id = :id AND s.status = 'claimed' AND s.claimedBy = :owner AND s.claimToken = :claimToken")
+    int finishClaim(@Param("id") Long id,
+                    @Param("owner") String owner,
+                    @Param("claimToken") String claimToken,
+                    @Param("status") String status,
+                    @Param("attempts") int attempts,
+                    @Param("lastError") String lastError,
+                    @Param("nextAttemptAt") Instant nextAttemptAt);
+    
+    @Modifying
+    @Query("UPDATE Schedule s SET s.nextAttemptAt = s.scheduledAt WHERE s.nextAttemptAt IS NULL")
+    int backfillNextAttemptAt();
+    
+    @Query("SELECT s.id AS id, s.nextAttemptAt AS nextAttemptAt FROM Schedule s " +
+           "WHERE s.status = 'queued' AND s.nextAttemptAt <= :until ORDER BY s.nextAttemptAt")
+    List<DueTimeView> findQueuedDueTimesBefore(@Param("until") Instant until, Pageable pageable);
+    
+    @Query("SELECT s.status AS status, COUNT(s) AS count FROM Schedule s GROUP BY s.status")
+    List<StatusCountView> countByStatus();
+    
+    // Served from the status-leading indexes, so only rows in the given statuses are visited
+    @Query("SELECT s.status AS status, COUNT(s) AS count FROM Schedule s WHERE s.status IN :statuses GROUP BY s.status")
+    List<StatusCountView> countByStatusIn(@Param("statuses") Collection<String> statuses);
+    
+    @Query("SELECT s.scheduledAt FROM Schedule s WHERE s.id = :id")
+    Optional<Instant> findScheduledAtById(@Param("id") Long id);
+    
+    @Query("SELECT s.status AS status, s.attemptCount AS attemptCount, s.nextAttemptAt AS nextAttemptAt " +
+           "FROM Schedule s WHERE s.id = :id")
+    Optional<VersionView> findVersionById(@Param("id") Long id);
+    
+    interface VersionView {
+        String getStatus();
+        
+        Integer getAttemptCount();
+        
+        Instant getNextAttemptAt();
+    }
+    
+    interface StatusCountView {
+        String getStatus();
+        
+        Long getCount();
+    }
+    
+    interface DueTimeView {
+        Long getId();
+        
+        Instant getNextAttemptAt();
+    }
 }
 
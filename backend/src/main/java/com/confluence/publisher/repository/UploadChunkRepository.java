@@ -0,0 +1,19 @@
+package com.confluence.publisher.repository;
+
+import com.confluence.publisher.entity.UploadChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadChunkRepository extends JpaRepository<UploadChunk, Long> {
+    
+    List<UploadChunk> findBySessionIdOrderByChunkIndex(String sessionId);
+    
+    Optional<UploadChunk> findBySessionIdAndChunkIndex(String sessionId, Integer chunkIndex);
+    
+    void deleteBySessionId(String sessionId);
+}
+
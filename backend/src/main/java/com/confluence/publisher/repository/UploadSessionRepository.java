@@ -0,0 +1,18 @@
+package com.confluence.publisher.repository;
+
+import com.confluence.publisher.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    
+    @Query("SELECT s FROM UploadSession s WHERE COALESCE(s.lastActivityAt, s.createdAt) < :cutoff")
+    List<UploadSession> findInactiveSince(@Param("cutoff") Instant cutoff);
+}
+
@@ -0,0 +1,163 @@
+package com.confluence.publisher.scheduler;
+
+import com.confluence.publisher.config.AppProperties;
+import com.confluence.publisher.entity.Schedule;
+import com.confluence.publisher.service.ScheduleQueuedEvent;
+import com.confluence.publisher.service.ScheduleService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+// Fires each queued schedule at its due time instead of waiting for the next database poll.
+// PageScheduler's slower reconciliation poll stays as a safety net and tops the timer up.
+@Component
+@ConditionalOnProperty(prefix = "app", name = "scheduler-enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class DueScheduleTimer {
+    
+    private static final int LOAD_LIMIT = 10_000;
+    private static final Duration CAPACITY_RETRY_DELAY = Duration.ofSeconds(1);
+    
+    private final ScheduleService scheduleService;
+    private final ScheduleDispatcher scheduleDispatcher;
+    private final AppProperties appProperties;
+    private final DelayQueue<DueEntry> queue = new DelayQueue<>();
+    // Latest due time per schedule; queue entries that no longer match are stale and ignored
+    private final Map<Long, Instant> dueTimes = new ConcurrentHashMap<>();
+    private volatile Thread worker;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!appProperties.getSchedulerTimerEnabled()) {
+            return;
+        }
+        worker = Thread.ofPlatform().name("schedule-timer").daemon().unstarted(this::run);
+        worker.start();
+        loadUpcoming(Instant.now().plus(horizon()));
+        log.info("Schedule timer started with {} pending schedules", dueTimes.size());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleQueued(ScheduleQueuedEvent event) {
+        if (worker != null) {
+            add(event.scheduleId(), event.dueAt());
+        }
+    }
+    
+    public void loadUpcoming(Instant until) {
+        if (worker == null) {
+            return;
+        }
+        scheduleService.findQueuedDueTimes(until, LOAD_LIMIT)
+                .forEach(due -> add(due.getId(), due.getNextAttemptAt()));
+    }
+    
+    public Duration horizon() {
+        return Duration.ofSeconds(appProperties.getSchedulerReconcileIntervalSeconds() * 2L);
+    }
+    
+    private void add(Long scheduleId, Instant dueAt) {
+        Instant previous = dueTimes.put(scheduleId, dueAt);
+        if (!dueAt.equals(previous)) {
+            queue.put(new DueEntry(scheduleId, dueAt));
+        }
+    }
+    
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            try {
+                List<DueEntry> due = new ArrayList<>();
+                due.add(queue.take());
+                queue.drainTo(due);
+                
+                List<Long> scheduleIds = due.stream()
+                        .filter(entry -> dueTimes.remove(entry.scheduleId(), entry.dueAt()))
+                        .map(DueEntry::scheduleId)
+                        .toList();
+                fire(scheduleIds);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Whatever was lost here is still queued in the database and is picked up by the reconciliation poll
+                log.error("Schedule timer failed to dispatch due schedules", e);
+            }
+        }
+    }
+    
+    private void fire(List<Long> scheduleIds) {
+        Instant pausedUntil = scheduleDispatcher.pausedUntil();
+        if (pausedUntil != null) {
+            // Keep them in the timer and try again once the circuit may let calls through
+            scheduleIds.forEach(scheduleId -> add(scheduleId, pausedUntil));
+            return;
+        }
+        int from = 0;
+        while (from < scheduleIds.size()) {
+            // Claim only what can start publishing now; the rest stays in the timer until slots free up
+            int batchSize = scheduleDispatcher.reserveSlots(appProperties.getSchedulerBatchSize());
+            if (batchSize == 0) {
+                Instant retryAt = Instant.now().plus(CAPACITY_RETRY_DELAY);
+                scheduleIds.subList(from, scheduleIds.size()).forEach(scheduleId -> add(scheduleId, retryAt));
+                return;
+            }
+            List<Long> batch = scheduleIds.subList(from, Math.min(from + batchSize, scheduleIds.size()));
+            from += batch.size();
+            List<Schedule> claimed;
+            try {
+                claimed = scheduleService.claimSchedules(
+                        appProperties.getNodeId(),
+                        batch,
+                        Instant.now(),
+                        Duration.ofSeconds(appProperties.getSchedulerLeaseSeconds())
+                );
+            } catch (RuntimeException e) {
+                scheduleDispatcher.releaseSlots(batchSize);
+                throw e;
+            }
+            if (!claimed.isEmpty()) {
+                log.debug("Timer claimed {} due schedules", claimed.size());
+            }
+            scheduleDispatcher.dispatchAsync(claimed, batchSize);
+        }
+    }
+    
+    private record DueEntry(Long scheduleId, Instant dueAt) implements Delayed {
+        
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(Instant.now(), dueAt));
+        }
+        
+        @Override
+        public int compareTo(Delayed other) {
+            return dueAt.compareTo(((DueEntry) other).dueAt);
+        }
+    }
+}
+
@@ -1,42 +1,61 @@
 package com.confluence.publisher.scheduler;
 
 import com.confluence.publisher.config.AppProperties;
-import com.confluence.publisher.entity.PublishLog;
 import com.confluence.publisher.entity.Schedule;
-import com.confluence.publisher.service.PublishService;
 import com.confluence.publisher.service.ScheduleService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 
 @Component
+@ConditionalOnProperty(prefix = "app", name = "scheduler-enabled", havingValue = "true", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 public class PageScheduler {
     
     private final ScheduleService scheduleService;
-    private final PublishService publishService;
+    private final ScheduleDispatcher scheduleDispatcher;
+    private final DueScheduleTimer dueScheduleTimer;
     private final AppProperties appProperties;
     
-    @Scheduled(fixedDelayString = "#{@appProperties.schedulerIntervalSeconds * 1000}")
+    // With the timer enabled this is only a slow reconciliation poll: it catches schedules created by
+    // other nodes or missed by the timer, and loads the next horizon of due times into the timer
+    @Scheduled(fixedDelayString = "#{(@appProperties.schedulerTimerEnabled ? @appProperties.schedulerReconcileIntervalSeconds : @appProperties.schedulerIntervalSeconds) * 1000}")
     public void processScheduledPosts() {
         Instant now = Instant.now();
-        List<Schedule> queuedSchedules = scheduleService.findQueuedSchedules(now);
-        
-        for (Schedule schedule : queuedSchedules) {
-            try {
-                PublishLog publishLog = publishService.publishPage(schedule.getPageId());
-                scheduleService.updateScheduleStatus(schedule, "posted", null);
-                log.debug("Successfully published page {} for schedule {}", schedule.getPageId(), schedule.getId());
-            } catch (Exception e) {
-                log.error("Failed to publish page {} for schedule {}", schedule.getPageId(), schedule.getId(), e);
-                scheduleService.updateScheduleStatus(schedule, "failed", e.getMessage());
-            }
+        dueScheduleTimer.loadUpcoming(now.plus(dueScheduleTimer.horizon()));
+        Instant pausedUntil = scheduleDispatcher.pausedUntil();
+        if (pausedUntil != null) {
+            log.info("Provider circuit is open, leaving due schedules queued until {}", pausedUntil);
+            return;
         }
+        int batchSize = scheduleDispatcher.reserveSlots(appProperties.getSchedulerBatchSize());
+        if (batchSize == 0) {
+            log.debug("All dispatch slots are busy, leaving due schedules queued");
+            return;
+        }
+        List<Schedule> claimedSchedules;
+        try {
+            claimedSchedules = scheduleService.claimDueSchedules(
+                    appProperties.getNodeId(),
+                    now,
+                    Duration.ofSeconds(appProperties.getSchedulerLeaseSeconds()),
+                    batchSize
+            );
+        } catch (RuntimeException e) {
+            scheduleDispatcher.releaseSlots(batchSize);
+            throw e;
+        }
+        if (!claimedSchedules.isEmpty()) {
+            log.debug("Claimed {} due schedules as {}", claimedSchedules.size(), appProperties.getNodeId());
+        }
+        scheduleDispatcher.dispatch(claimedSchedules, batchSize);
     }
 }
 
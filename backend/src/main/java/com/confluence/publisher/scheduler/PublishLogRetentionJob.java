@@ -0,0 +1,33 @@
+package com.confluence.publisher.scheduler;
+
+import com.confluence.publisher.config.AppProperties;
+import com.confluence.publisher.service.PublishLogArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Component
+@ConditionalOnProperty(prefix = "app", name = "retention-enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class PublishLogRetentionJob {
+    
+    private final PublishLogArchiveService publishLogArchiveService;
+    private final AppProperties appProperties;
+    
+    @Scheduled(cron = "#{@appProperties.retentionCron}")
+    public void archiveExpiredLogs() {
+        Instant cutoff = Instant.now().minus(Duration.ofDays(appProperties.getRetentionDays()));
+        try {
+            publishLogArchiveService.archiveOlderThan(cutoff);
+        } catch (Exception e) {
+            log.error("Failed to archive publish logs created before {}", cutoff, e);
+        }
+    }
+}
+
@@ -0,0 +1,45 @@
+package com.confluence.publisher.scheduler;
+
+import com.confluence.publisher.config.AppProperties;
+import com.confluence.publisher.provider.ProviderException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+@RequiredArgsConstructor
+public class RetryPolicy {
+    
+    private final AppProperties appProperties;
+    
+    public boolean shouldRetry(int attemptCount, Exception e) {
+        return attemptCount < appProperties.getRetryMaxAttempts() && isTransient(e);
+    }
+    
+    // Exponential backoff with jitter, so schedules that failed together do not retry in lockstep
+    public Instant nextAttemptAt(Instant now, int attemptCount) {
+        double backoffMillis = appProperties.getRetryInitialBackoffSeconds() * 1000.0
+                * Math.pow(appProperties.getRetryBackoffMultiplier(), Math.max(0, attemptCount - 1));
+        double cappedMillis = Math.min(backoffMillis, appProperties.getRetryMaxBackoffSeconds() * 1000.0);
+        double jitter = appProperties.getRetryJitter() * ThreadLocalRandom.current().nextDouble();
+        return now.plus(Duration.ofMillis((long) (cappedMillis * (1.0 - jitter))));
+    }
+    
+    private boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ProviderException providerException) {
+                return providerException.isRetryable();
+            }
+            if (cause instanceof TransientDataAccessException || cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
+
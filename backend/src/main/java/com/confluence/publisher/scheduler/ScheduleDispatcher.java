@@ -0,0 +1,239 @@
+package com.confluence.publisher.scheduler;
+
+import com.confluence.publisher.config.AppProperties;
+import com.confluence.publisher.entity.Schedule;
+import com.confluence.publisher.metrics.PublisherMetrics;
+import com.confluence.publisher.provider.CircuitOpenException;
+import com.confluence.publisher.provider.LocalThrottleException;
+import com.confluence.publisher.provider.ProviderFactory;
+import com.confluence.publisher.service.PageService;
+import com.confluence.publisher.service.PublishService;
+import com.confluence.publisher.service.ScheduleService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Slf4j
+public class ScheduleDispatcher {
+    
+    private final ScheduleService scheduleService;
+    private final PublishService publishService;
+    private final PageService pageService;
+    private final AppProperties appProperties;
+    private final RetryPolicy retryPolicy;
+    private final ProviderFactory providerFactory;
+    private final PublisherMetrics publisherMetrics;
+    private final ExecutorService publishExecutor;
+    private final Semaphore globalPermits;
+    private final Map<String, Semaphore> spacePermits = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ScheduledExecutorService leaseRenewer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("schedule-lease-renewer").daemon().factory());
+    
+    public ScheduleDispatcher(ScheduleService scheduleService,
+                              PublishService publishService,
+                              PageService pageService,
+                              AppProperties appProperties,
+                              RetryPolicy retryPolicy,
+                              ProviderFactory providerFactory,
+                              PublisherMetrics publisherMetrics,
+                              @Qualifier("publishExecutor") ExecutorService publishExecutor) {
+        this.scheduleService = scheduleService;
+        this.publishService = publishService;
+        this.pageService = pageService;
+        this.appProperties = appProperties;
+        this.retryPolicy = retryPolicy;
+        this.providerFactory = providerFactory;
+        this.publisherMetrics = publisherMetrics;
+        this.publishExecutor = publishExecutor;
+        this.globalPermits = new Semaphore(Math.max(1, appProperties.getSchedulerMaxConcurrency()), true);
+    }
+    
+    // Non-null while the provider's circuit breaker is open; nothing should be claimed until then
+    public Instant pausedUntil() {
+        return providerFactory.pausedUntil();
+    }
+    
+    // Reserves up to max of the slots left under the global concurrency limit and returns how many it got.
+    // Claimers reserve before they claim and take no more rows than that, so claimed rows do not sit on the
+    // semaphores while their leases run down; the timer and the reconciliation poll reserve concurrently.
+    public int reserveSlots(int max) {
+        int limit = Math.max(1, appProperties.getSchedulerMaxConcurrency());
+        while (true) {
+            int current = inFlight.get();
+            int reserved = Math.min(max, limit - current);
+            if (reserved <= 0) {
+                return 0;
+            }
+            if (inFlight.compareAndSet(current, current + reserved)) {
+                return reserved;
+            }
+        }
+    }
+    
+    public void releaseSlots(int count) {
+        if (count > 0) {
+            inFlight.addAndGet(-count);
+        }
+    }
+    
+    public void dispatch(List<Schedule> schedules, int reservedSlots) {
+        dispatchAsync(schedules, reservedSlots).join();
+    }
+    
+    // Runs the schedules on slots taken with reserveSlots and hands back the ones they do not use
+    public CompletableFuture<Void> dispatchAsync(List<Schedule> schedules, int reservedSlots) {
+        releaseSlots(reservedSlots - schedules.size());
+        if (schedules.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!"parallel".equalsIgnoreCase(appProperties.getSchedulerDispatchMode())) {
+            return CompletableFuture.runAsync(() -> schedules.forEach(schedule -> track(() -> publish(schedule))), publishExecutor);
+        }
+        
+        Map<Long, String> spaceKeys;
+        try {
+            spaceKeys = pageService.getSpaceKeys(schedules.stream().map(Schedule::getPageId).distinct().toList());
+        } catch (RuntimeException e) {
+            releaseSlots(schedules.size());
+            throw e;
+        }
+        CompletableFuture<?>[] futures = schedules.stream()
+                .map(schedule -> CompletableFuture.runAsync(
+                        () -> track(() -> publishWithPermits(schedule, spaceKeys.getOrDefault(schedule.getPageId(), ""))),
+                        publishExecutor))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures);
+    }
+    
+    private void track(Runnable task) {
+        try {
+            task.run();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+    
+    private void publishWithPermits(Schedule schedule, String spaceKey) {
+        Semaphore spacePermit = spacePermits.computeIfAbsent(spaceKey,
+                key -> new Semaphore(Math.max(1, appProperties.getSchedulerMaxConcurrencyPerSpace()), true));
+        try {
+            // Take the space permit first so a saturated space cannot hold global permits while it waits
+            spacePermit.acquire();
+            try {
+                globalPermits.acquire();
+                try {
+                    publish(schedule);
+                } finally {
+                    globalPermits.release();
+                }
+            } finally {
+                spacePermit.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted before publishing schedule {}, leaving it claimed until its lease expires", schedule.getId());
+        }
+    }
+    
+    private void publish(Schedule schedule) {
+        Duration lease = Duration.ofSeconds(appProperties.getSchedulerLeaseSeconds());
+        // The lease runs from the start of the publish, not from the claim, and is renewed while it lasts
+        if (!scheduleService.renewLease(schedule, lease)) {
+            log.info("Lost the claim on schedule {} before publishing, leaving it to its new owner", schedule.getId());
+            return;
+        }
+        Instant dueAt = schedule.getNextAttemptAt() != null ? schedule.getNextAttemptAt() : schedule.getScheduledAt();
+        publisherMetrics.recordScheduleLag(Duration.between(dueAt, Instant.now()));
+        try {
+            publishWithLeaseRenewal(schedule, lease);
+            if (scheduleService.updateScheduleStatus(schedule, "posted", null)) {
+                publisherMetrics.recordAttempts("posted", schedule.getAttemptCount());
+                log.debug("Successfully published page {} for schedule {}", schedule.getPageId(), schedule.getId());
+            } else {
+                logLostClaim(schedule);
+            }
+        } catch (CircuitOpenException e) {
+            Instant retryAt = e.getRetryAt() != null ? e.getRetryAt() : Instant.now();
+            log.info("Provider circuit is open, returning schedule {} to the queue until {}", schedule.getId(), retryAt);
+            if (!scheduleService.releaseClaim(schedule, retryAt)) {
+                logLostClaim(schedule);
+            }
+        } catch (LocalThrottleException e) {
+            // Confluence was never called, so this is no failed attempt
+            log.info("{}, returning schedule {} to the queue until {}", e.getMessage(), schedule.getId(), e.getRetryAt());
+            if (!scheduleService.releaseClaim(schedule, e.getRetryAt())) {
+                logLostClaim(schedule);
+            }
+        } catch (Exception e) {
+            int attemptCount = schedule.getAttemptCount() + 1;
+            if (retryPolicy.shouldRetry(attemptCount, e)) {
+                Instant nextAttemptAt = retryPolicy.nextAttemptAt(Instant.now(), attemptCount);
+                log.warn("Failed to publish page {} for schedule {} (attempt {}), retrying at {}: {}",
+                         schedule.getPageId(), schedule.getId(), attemptCount, nextAttemptAt, e.getMessage());
+                if (scheduleService.rescheduleAttempt(schedule, e.getMessage(), nextAttemptAt)) {
+                    publisherMetrics.recordAttempts("retried", schedule.getAttemptCount());
+                } else {
+                    logLostClaim(schedule);
+                }
+            } else {
+                log.error("Failed to publish page {} for schedule {}", schedule.getPageId(), schedule.getId(), e);
+                if (scheduleService.updateScheduleStatus(schedule, "failed", e.getMessage())) {
+                    publisherMetrics.recordAttempts("failed", schedule.getAttemptCount());
+                } else {
+                    logLostClaim(schedule);
+                }
+            }
+        }
+    }
+    
+    private void publishWithLeaseRenewal(Schedule schedule, Duration lease) {
+        AtomicBoolean publishing = new AtomicBoolean(true);
+        long periodMillis = Math.max(1000, lease.toMillis() / 3);
+        ScheduledFuture<?> renewal = leaseRenewer.scheduleAtFixedRate(
+                () -> renewLease(schedule, lease, publishing), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        try {
+            publishService.publishPage(schedule.getPageId());
+        } finally {
+            publishing.set(false);
+            renewal.cancel(false);
+        }
+    }
+    
+    private void renewLease(Schedule schedule, Duration lease, AtomicBoolean publishing) {
+        try {
+            if (!scheduleService.renewLease(schedule, lease) && publishing.get()) {
+                log.warn("Lost the claim on schedule {} while publishing page {}", schedule.getId(), schedule.getPageId());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew the lease on schedule {}: {}", schedule.getId(), e.getMessage());
+        }
+    }
+    
+    private void logLostClaim(Schedule schedule) {
+        log.warn("Lost the claim on schedule {} during the publish, its result was not recorded", schedule.getId());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        leaseRenewer.shutdownNow();
+    }
+}
+
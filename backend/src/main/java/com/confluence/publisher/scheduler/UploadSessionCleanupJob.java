@@ -0,0 +1,24 @@
+package com.confluence.publisher.scheduler;
+
+import com.confluence.publisher.service.ChunkedUploadService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UploadSessionCleanupJob {
+    
+    private final ChunkedUploadService chunkedUploadService;
+    
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT5M")
+    public void deleteExpiredSessions() {
+        int deleted = chunkedUploadService.deleteExpiredSessions();
+        if (deleted > 0) {
+            log.info("Deleted {} expired upload sessions", deleted);
+        }
+    }
+}
+
@@ -1,18 +1,33 @@
 package com.confluence.publisher.service;
 
 import com.confluence.publisher.config.AppProperties;
+import com.confluence.publisher.config.CacheConfig;
 import com.confluence.publisher.entity.Attachment;
+import com.confluence.publisher.metrics.PublisherMetrics;
 import com.confluence.publisher.repository.AttachmentRepository;
+import com.confluence.publisher.repository.PageAttachmentRepository;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -21,35 +36,154 @@ import java.util.UUID;
 public class AttachmentService {
     
     private final AttachmentRepository attachmentRepository;
+    private final PageAttachmentRepository pageAttachmentRepository;
+    private final TransactionTemplate transactionTemplate;
     private final AppProperties appProperties;
+    private final PublisherMetrics publisherMetrics;
+    private final CacheManager cacheManager;
     
-    @Transactional
     public Attachment uploadAttachment(MultipartFile file, String description) {
+        Timer.Sample sample = publisherMetrics.startTimer();
+        Path tempFile = null;
         try {
-            Path attachmentDir = Paths.get(appProperties.getAttachmentDir());
-            Files.createDirectories(attachmentDir);
+            tempFile = createTempFile();
+            MessageDigest digest = newDigest();
+            long size;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                size = Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
             
             String originalFilename = file.getOriginalFilename();
-            String suffix = originalFilename != null && originalFilename.contains(".")
-                    ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                    : "";
-            String filename = UUID.randomUUID().toString().replace("-", "") + suffix;
-            Path filePath = attachmentDir.resolve(filename);
-            
-            Files.write(filePath, file.getBytes());
-            
-            Attachment attachment = Attachment.builder()
-                    .filename(originalFilename != null ? originalFilename : "unknown")
-                    .contentType(file.getContentType() != null ? file.getContentType() : "application/octet-stream")
-                    .size(file.getSize())
-                    .storagePath(filePath.toString())
-                    .description(description)
-                    .build();
-            
-            return attachmentRepository.save(attachment);
+            Attachment attachment = storeAttachment(
+                    tempFile,
+                    HexFormat.of().formatHex(digest.digest()),
+                    size,
+                    originalFilename != null ? originalFilename : "unknown",
+                    file.getContentType() != null ? file.getContentType() : "application/octet-stream",
+                    description
+            );
+            publisherMetrics.recordUpload(sample, size, "stored");
+            return attachment;
         } catch (IOException e) {
+            publisherMetrics.recordUpload(sample, file.getSize(), "error");
             log.error("Failed to upload attachment", e);
             throw new RuntimeException("Failed to upload attachment: " + e.getMessage(), e);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+    
+    // Moves an already hashed temp file into content-addressed storage, reusing the blob when
+    // identical bytes are stored already, and records a new attachment row referencing it.
+    // The row is inserted first, which takes the database write lock; deleting the last reference
+    // checks and removes the blob under that same lock, so the two cannot interleave on any node.
+    public Attachment storeAttachment(Path tempFile, String contentHash, long size,
+                                      String filename, String contentType, String description) throws IOException {
+        Path blobPath = blobPath(contentHash);
+        Files.createDirectories(blobPath.getParent());
+        try {
+            return transactionTemplate.execute(status -> {
+                Attachment attachment = attachmentRepository.save(Attachment.builder()
+                        .filename(filename)
+                        .contentType(contentType)
+                        .size(size)
+                        .storagePath(blobPath.toString())
+                        .contentHash(contentHash)
+                        .description(description)
+                        .build());
+                moveIntoStore(tempFile, blobPath, contentHash, filename);
+                return attachment;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    public Attachment getAttachment(Long attachmentId) {
+        return attachmentRepository.findById(attachmentId)
+                .orElseThrow(() -> new RuntimeException("Attachment not found: " + attachmentId));
+    }
+    
+    public Path getContentPath(Attachment attachment) {
+        Path path = Paths.get(attachment.getStoragePath());
+        if (!Files.isRegularFile(path)) {
+            throw new RuntimeException("Attachment content not found: " + attachment.getId());
+        }
+        return path;
+    }
+    
+    public void deleteAttachment(Long attachmentId) {
+        Attachment attachment = attachmentRepository.findById(attachmentId)
+                .orElseThrow(() -> new RuntimeException("Attachment not found: " + attachmentId));
+        String contentHash = attachment.getContentHash();
+        List<Long> affectedPageIds = transactionTemplate.execute(status -> {
+            List<Long> pageIds = pageAttachmentRepository.findPageIdsByAttachmentId(attachmentId);
+            pageAttachmentRepository.deleteByAttachmentId(attachmentId);
+            attachmentRepository.deleteById(attachmentId);
+            attachmentRepository.flush();
+            // Still holding the write lock taken by the deletes, so no upload can start reusing the blob
+            // between the reference count and its removal
+            if (contentHash != null && attachmentRepository.countByContentHash(contentHash) == 0) {
+                deleteQuietly(blobPath(contentHash));
+                log.debug("Deleted unreferenced blob {}", contentHash);
+            }
+            return pageIds;
+        });
+        // Evicted after commit, so reads that start afterwards see the new attachment list. A read that loaded the
+        // page before the commit can still cache the old list after this eviction; page-cache-ttl-seconds bounds that.
+        Cache pageCache = cacheManager.getCache(CacheConfig.PAGES);
+        if (pageCache != null && affectedPageIds != null) {
+            affectedPageIds.forEach(pageCache::evict);
+        }
+        
+        if (contentHash == null) {
+            // Uploaded before content addressing, so the file belongs to this row alone
+            deleteQuietly(Paths.get(attachment.getStoragePath()));
+        }
+    }
+    
+    public Path createTempFile() throws IOException {
+        Path tempDir = Paths.get(appProperties.getAttachmentDir()).resolve(".tmp");
+        Files.createDirectories(tempDir);
+        return tempDir.resolve(UUID.randomUUID().toString().replace("-", "") + ".part");
+    }
+    
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private Path blobPath(String contentHash) {
+        return Paths.get(appProperties.getAttachmentDir())
+                .resolve(contentHash.substring(0, 2))
+                .resolve(contentHash);
+    }
+    
+    private static void moveIntoStore(Path tempFile, Path blobPath, String contentHash, String filename) {
+        if (Files.exists(blobPath)) {
+            log.debug("Reusing stored blob {} for {}", contentHash, filename);
+            return;
+        }
+        try {
+            Files.move(tempFile, blobPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            log.debug("Blob {} was stored concurrently, reusing it", contentHash);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", path, e);
         }
     }
 }
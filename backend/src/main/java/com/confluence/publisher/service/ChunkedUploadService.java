@@ -0,0 +1,380 @@
+package com.confluence.publisher.service;
+
+import com.confluence.publisher.config.AppProperties;
+import com.confluence.publisher.dto.UploadSessionCreateRequest;
+import com.confluence.publisher.dto.UploadSessionResponse;
+import com.confluence.publisher.entity.Attachment;
+import com.confluence.publisher.entity.UploadChunk;
+import com.confluence.publisher.entity.UploadSession;
+import com.confluence.publisher.exception.BadRequestException;
+import com.confluence.publisher.repository.UploadChunkRepository;
+import com.confluence.publisher.repository.UploadSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Resumable uploads: a session owns a preallocated part file and clients write fixed-size chunks into it
+// at their offsets, in any order and in parallel, each checked against the SHA-256 the client sent.
+// Completing re-reads the file once to hash it (SHA-256 over out-of-order chunks cannot be built up
+// incrementally), re-verifies every chunk on the way, and moves the file into content-addressed storage.
+// Each session has its own lock, which is never held while reading a request body from the network.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkedUploadService {
+    
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final int HASH_BUFFER_SIZE = 1024 * 1024;
+    
+    private final UploadSessionRepository uploadSessionRepository;
+    private final UploadChunkRepository uploadChunkRepository;
+    private final AttachmentService attachmentService;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProperties appProperties;
+    // Serializes recording chunks, completion and deletion per session; dropped once the session is finished
+    private final Map<String, Lock> sessionLocks = new ConcurrentHashMap<>();
+    
+    public UploadSessionResponse createSession(UploadSessionCreateRequest request) throws IOException {
+        if (request.getTotalSize() > appProperties.getUploadMaxSizeBytes()) {
+            throw new BadRequestException("Upload exceeds the maximum size of " + appProperties.getUploadMaxSizeBytes() + " bytes");
+        }
+        int chunkSize = request.getChunkSize() != null ? request.getChunkSize() : appProperties.getUploadChunkSizeBytes();
+        if (chunkSize < MIN_CHUNK_SIZE || chunkSize > MAX_CHUNK_SIZE) {
+            throw new BadRequestException("Chunk size must be between " + MIN_CHUNK_SIZE + " and " + MAX_CHUNK_SIZE + " bytes");
+        }
+        UploadSession session = UploadSession.builder()
+                .id(UUID.randomUUID().toString())
+                .filename(request.getFilename())
+                .contentType(request.getContentType() != null ? request.getContentType() : "application/octet-stream")
+                .description(request.getDescription())
+                .totalSize(request.getTotalSize())
+                .chunkSize(chunkSize)
+                .status("open")
+                .lastActivityAt(Instant.now())
+                .build();
+        Path partFile = partFile(session.getId());
+        Files.createDirectories(partFile.getParent());
+        // Sized up front (sparse where the filesystem allows) so chunks can land at any offset
+        try (RandomAccessFile file = new RandomAccessFile(partFile.toFile(), "rw")) {
+            file.setLength(session.getTotalSize());
+        }
+        session = uploadSessionRepository.save(session);
+        return toResponse(session, List.of());
+    }
+    
+    public UploadSessionResponse getSession(String sessionId) {
+        UploadSession session = findSession(sessionId);
+        return toResponse(session, uploadChunkRepository.findBySessionIdOrderByChunkIndex(sessionId));
+    }
+    
+    // The body is streamed into a file of its own first, without the session lock, so a slow client holds up
+    // neither other chunks nor completion and cleanup. Only the local copy into the part file and recording
+    // the chunk happen under the lock.
+    public UploadSessionResponse writeChunk(String sessionId, int chunkIndex, String expectedSha256, InputStream body) throws IOException {
+        if (expectedSha256 == null || expectedSha256.isBlank()) {
+            throw new BadRequestException("Chunk checksum is required");
+        }
+        UploadSession session = findOpenSession(sessionId);
+        int chunkCount = chunkCount(session);
+        if (chunkIndex < 0 || chunkIndex >= chunkCount) {
+            throw new BadRequestException("Chunk index must be between 0 and " + (chunkCount - 1));
+        }
+        long offset = (long) chunkIndex * session.getChunkSize();
+        long expectedSize = Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+        
+        Path chunkFile = chunkFile(sessionId, chunkIndex);
+        try {
+            String sha256 = receiveChunk(chunkFile, chunkIndex, expectedSize, body);
+            if (!sha256.equalsIgnoreCase(expectedSha256.trim())) {
+                throw new BadRequestException("Checksum mismatch for chunk " + chunkIndex);
+            }
+            
+            // The session may have been completed or aborted while the body was arriving
+            LockedSession locked = lockSession(sessionId, true);
+            try {
+                UploadSession current = locked.session();
+                try (FileChannel part = FileChannel.open(partFile(sessionId), StandardOpenOption.WRITE);
+                     FileChannel chunk = FileChannel.open(chunkFile, StandardOpenOption.READ)) {
+                    long copied = 0;
+                    while (copied < expectedSize) {
+                        long transferred = part.transferFrom(chunk, offset + copied, expectedSize - copied);
+                        if (transferred <= 0) {
+                            throw new IOException("Chunk file is shorter than " + expectedSize + " bytes");
+                        }
+                        copied += transferred;
+                    }
+                    part.force(false);
+                }
+                
+                current.setLastActivityAt(Instant.now());
+                transactionTemplate.executeWithoutResult(status -> {
+                    UploadChunk chunk = uploadChunkRepository.findBySessionIdAndChunkIndex(sessionId, chunkIndex)
+                            .orElseGet(() -> UploadChunk.builder().sessionId(sessionId).chunkIndex(chunkIndex).build());
+                    chunk.setSize(expectedSize);
+                    chunk.setSha256(sha256);
+                    uploadChunkRepository.save(chunk);
+                    uploadSessionRepository.save(current);
+                });
+                return toResponse(current, uploadChunkRepository.findBySessionIdOrderByChunkIndex(sessionId));
+            } finally {
+                locked.lock().unlock();
+            }
+        } finally {
+            Files.deleteIfExists(chunkFile);
+        }
+    }
+    
+    public Attachment completeSession(String sessionId, String expectedSha256) throws IOException {
+        findOpenSession(sessionId);
+        LockedSession locked = lockSession(sessionId, true);
+        try {
+            UploadSession session = locked.session();
+            List<UploadChunk> chunks = uploadChunkRepository.findBySessionIdOrderByChunkIndex(sessionId);
+            List<Integer> missing = missingChunks(session, chunks);
+            if (!missing.isEmpty()) {
+                throw new BadRequestException("Upload is missing " + missing.size() + " chunks, first missing chunk is " + missing.get(0));
+            }
+            
+            Path partFile = partFile(sessionId);
+            String contentHash = hashAndVerify(session, chunks, partFile);
+            if (expectedSha256 != null && !expectedSha256.isBlank() && !contentHash.equalsIgnoreCase(expectedSha256.trim())) {
+                throw new BadRequestException("Checksum mismatch for the assembled file");
+            }
+            
+            // On failure the part file stays, so the client can retry completing the still open session
+            Attachment attachment = attachmentService.storeAttachment(partFile, contentHash, session.getTotalSize(),
+                    session.getFilename(), session.getContentType(), session.getDescription());
+            // Left behind when identical bytes were already stored and the existing blob was reused
+            Files.deleteIfExists(partFile);
+            session.setStatus("completed");
+            session.setAttachmentId(attachment.getId());
+            session.setLastActivityAt(Instant.now());
+            transactionTemplate.executeWithoutResult(status -> {
+                uploadSessionRepository.save(session);
+                uploadChunkRepository.deleteBySessionId(sessionId);
+            });
+            sessionLocks.remove(sessionId, locked.lock());
+            return attachment;
+        } finally {
+            locked.lock().unlock();
+        }
+    }
+    
+    public void abortSession(String sessionId) throws IOException {
+        findSession(sessionId);
+        LockedSession locked = lockSession(sessionId, false);
+        try {
+            deleteSession(sessionId, locked.lock());
+        } finally {
+            locked.lock().unlock();
+        }
+    }
+    
+    // Drops sessions without activity for the TTL: abandoned uploads with their part files, and finished ones.
+    // Sessions busy right now are skipped rather than waited for, so a stalled upload cannot hold up the shared
+    // scheduler thread this runs on; being busy, they are not expired anyway.
+    public int deleteExpiredSessions() {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(appProperties.getUploadSessionTtlHours()));
+        int deleted = 0;
+        for (UploadSession session : uploadSessionRepository.findInactiveSince(cutoff)) {
+            Lock lock = lockFor(session.getId());
+            if (!lock.tryLock()) {
+                continue;
+            }
+            try {
+                deleteSession(session.getId(), lock);
+                deleted++;
+            } catch (Exception e) {
+                log.warn("Failed to delete expired upload session {}", session.getId(), e);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return deleted;
+    }
+    
+    // Callers hold the session's lock. Anyone still waiting on it finds the session gone once they get it.
+    private void deleteSession(String sessionId, Lock lock) throws IOException {
+        Files.deleteIfExists(partFile(sessionId));
+        try (DirectoryStream<Path> chunkFiles = Files.newDirectoryStream(partFile(sessionId).getParent(), sessionId + ".*.chunk")) {
+            for (Path chunkFile : chunkFiles) {
+                Files.deleteIfExists(chunkFile);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            uploadChunkRepository.deleteBySessionId(sessionId);
+            uploadSessionRepository.deleteById(sessionId);
+        });
+        sessionLocks.remove(sessionId, lock);
+    }
+    
+    // Streams the body into the chunk's own file while hashing it; it has to be exactly expectedSize bytes
+    private static String receiveChunk(Path chunkFile, int chunkIndex, long expectedSize, InputStream body) throws IOException {
+        MessageDigest digest = AttachmentService.newDigest();
+        long written;
+        try (FileChannel channel = FileChannel.open(chunkFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             DigestInputStream in = new DigestInputStream(body, digest)) {
+            written = channel.transferFrom(Channels.newChannel(in), 0, expectedSize);
+            if (written == expectedSize && in.read() != -1) {
+                throw new BadRequestException("Chunk " + chunkIndex + " is larger than " + expectedSize + " bytes");
+            }
+        }
+        if (written != expectedSize) {
+            throw new BadRequestException("Chunk " + chunkIndex + " must be " + expectedSize + " bytes, got " + written);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    // Reads the part file once, computing the file hash and re-checking each recorded chunk hash,
+    // which catches a chunk overwritten by a concurrent, failed retry after it was recorded
+    private String hashAndVerify(UploadSession session, List<UploadChunk> chunks, Path partFile) throws IOException {
+        Map<Integer, String> chunkHashes = chunks.stream()
+                .collect(Collectors.toMap(UploadChunk::getChunkIndex, UploadChunk::getSha256));
+        MessageDigest fileDigest = AttachmentService.newDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(partFile, StandardOpenOption.READ)) {
+            int chunkCount = chunkCount(session);
+            for (int index = 0; index < chunkCount; index++) {
+                long offset = (long) index * session.getChunkSize();
+                long remaining = Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+                MessageDigest chunkDigest = AttachmentService.newDigest();
+                long position = offset;
+                while (remaining > 0) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), remaining));
+                    int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        throw new IOException("Part file is shorter than the upload size");
+                    }
+                    buffer.flip();
+                    chunkDigest.update(buffer.duplicate());
+                    fileDigest.update(buffer);
+                    position += read;
+                    remaining -= read;
+                }
+                if (!HexFormat.of().formatHex(chunkDigest.digest()).equalsIgnoreCase(chunkHashes.get(index))) {
+                    int corruptIndex = index;
+                    transactionTemplate.executeWithoutResult(status -> uploadChunkRepository
+                            .findBySessionIdAndChunkIndex(session.getId(), corruptIndex)
+                            .ifPresent(uploadChunkRepository::delete));
+                    throw new BadRequestException("Chunk " + index + " no longer matches its checksum, upload it again");
+                }
+            }
+        }
+        return HexFormat.of().formatHex(fileDigest.digest());
+    }
+    
+    private UploadSession findSession(String sessionId) {
+        return uploadSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Upload session not found: " + sessionId));
+    }
+    
+    private UploadSession findOpenSession(String sessionId) {
+        UploadSession session = findSession(sessionId);
+        if (!"open".equals(session.getStatus())) {
+            throw new BadRequestException("Upload session " + sessionId + " is already " + session.getStatus());
+        }
+        return session;
+    }
+    
+    private UploadSessionResponse toResponse(UploadSession session, List<UploadChunk> chunks) {
+        List<UploadSessionResponse.ByteRange> ranges = new ArrayList<>();
+        long receivedBytes = 0;
+        for (UploadChunk chunk : chunks) {
+            long start = (long) chunk.getChunkIndex() * session.getChunkSize();
+            long end = start + chunk.getSize() - 1;
+            receivedBytes += chunk.getSize();
+            UploadSessionResponse.ByteRange last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last != null && last.getEnd() + 1 == start) {
+                last.setEnd(end);
+            } else {
+                ranges.add(UploadSessionResponse.ByteRange.builder().start(start).end(end).build());
+            }
+        }
+        return UploadSessionResponse.builder()
+                .id(session.getId())
+                .filename(session.getFilename())
+                .status(session.getStatus())
+                .totalSize(session.getTotalSize())
+                .chunkSize(session.getChunkSize())
+                .chunkCount(chunkCount(session))
+                .receivedBytes(receivedBytes)
+                .receivedRanges(ranges)
+                .missingChunks("open".equals(session.getStatus()) ? missingChunks(session, chunks) : List.of())
+                .attachmentId(session.getAttachmentId())
+                .build();
+    }
+    
+    private static List<Integer> missingChunks(UploadSession session, List<UploadChunk> chunks) {
+        Map<Integer, UploadChunk> received = chunks.stream()
+                .collect(Collectors.toMap(UploadChunk::getChunkIndex, Function.identity()));
+        List<Integer> missing = new ArrayList<>();
+        for (int index = 0; index < chunkCount(session); index++) {
+            if (!received.containsKey(index)) {
+                missing.add(index);
+            }
+        }
+        return missing;
+    }
+    
+    private static int chunkCount(UploadSession session) {
+        return (int) ((session.getTotalSize() + session.getChunkSize() - 1) / session.getChunkSize());
+    }
+    
+    private Path partFile(String sessionId) {
+        return Paths.get(appProperties.getAttachmentDir()).resolve(".uploads").resolve(sessionId + ".part");
+    }
+    
+    private Path chunkFile(String sessionId, int chunkIndex) {
+        return partFile(sessionId).resolveSibling(sessionId + "." + chunkIndex + "." + UUID.randomUUID() + ".chunk");
+    }
+    
+    // Only for sessions the caller has just found, so unknown ids never get a lock. Should the session be gone,
+    // or no longer open when requireOpen, by the time the lock is held, the lock is dropped from the map again.
+    private LockedSession lockSession(String sessionId, boolean requireOpen) {
+        Lock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            return new LockedSession(lock, requireOpen ? findOpenSession(sessionId) : findSession(sessionId));
+        } catch (RuntimeException e) {
+            sessionLocks.remove(sessionId, lock);
+            lock.unlock();
+            throw e;
+        }
+    }
+    
+    private Lock lockFor(String sessionId) {
+        return sessionLocks.computeIfAbsent(sessionId, key -> new ReentrantLock());
+    }
+    
+    private record LockedSession(Lock lock, UploadSession session) {}
+}
+
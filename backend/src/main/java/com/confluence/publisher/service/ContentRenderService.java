@@ -0,0 +1,57 @@
+package com.confluence.publisher.service;
+
+import com.confluence.publisher.config.CacheConfig;
+import com.confluence.publisher.exception.BadRequestException;
+import com.confluence.publisher.repository.PageAttachmentRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Turns page content into the Confluence storage format the providers send. Markdown output is cached
+// by a hash of its input, so republishing or previewing an unchanged page does not render it again.
+@Service
+public class ContentRenderService {
+    
+    public static final String FORMAT_STORAGE = "storage";
+    public static final String FORMAT_MARKDOWN = "markdown";
+    
+    private final MarkdownStorageRenderer markdownRenderer = new MarkdownStorageRenderer();
+    private final Cache renderedContent;
+    
+    public ContentRenderService(CacheManager cacheManager) {
+        this.renderedContent = cacheManager.getCache(CacheConfig.RENDERED_CONTENT);
+    }
+    
+    // Pages created before content formats existed have none and are already in storage format
+    public String toStorage(String content, String contentFormat, List<PageAttachmentRepository.AttachmentView> attachments) {
+        if (contentFormat == null || FORMAT_STORAGE.equals(contentFormat)) {
+            return content;
+        }
+        if (!FORMAT_MARKDOWN.equals(contentFormat)) {
+            throw new BadRequestException("Unsupported content format: " + contentFormat);
+        }
+        Map<Integer, String> attachmentsByPosition = new TreeMap<>();
+        attachments.forEach(attachment -> attachmentsByPosition.putIfAbsent(attachment.getPosition(), attachment.getFilename()));
+        return renderedContent.get(cacheKey(content, attachmentsByPosition),
+                () -> markdownRenderer.render(content, attachmentsByPosition));
+    }
+    
+    // The output depends on the Markdown and on which filename each attachment position resolves to
+    private static String cacheKey(String content, Map<Integer, String> attachmentsByPosition) {
+        MessageDigest digest = AttachmentService.newDigest();
+        digest.update(content.getBytes(StandardCharsets.UTF_8));
+        attachmentsByPosition.forEach((position, filename) -> {
+            digest.update((byte) 0);
+            digest.update((position + ":" + filename).getBytes(StandardCharsets.UTF_8));
+        });
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
+
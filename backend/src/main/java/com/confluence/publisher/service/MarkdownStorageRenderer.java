@@ -0,0 +1,199 @@
+package com.confluence.publisher.service;
+
+import org.commonmark.Extension;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.node.AbstractVisitor;
+import org.commonmark.node.Code;
+import org.commonmark.node.FencedCodeBlock;
+import org.commonmark.node.HardLineBreak;
+import org.commonmark.node.Image;
+import org.commonmark.node.IndentedCodeBlock;
+import org.commonmark.node.Node;
+import org.commonmark.node.SoftLineBreak;
+import org.commonmark.node.Text;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.NodeRenderer;
+import org.commonmark.renderer.html.HtmlNodeRendererContext;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.commonmark.renderer.html.HtmlWriter;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Converts CommonMark (plus GFM tables) to Confluence storage format: code blocks become the code macro
+// and images that refer to one of the page's attachments become ac:image/ri:attachment.
+// Parser and renderer are immutable, so one instance serves all threads.
+// Pages are rendered into one String rather than streamed to the provider: the publish fingerprint and the
+// render cache both need the complete output, and a cached render is then sent without rendering at all.
+class MarkdownStorageRenderer {
+    
+    static final String ATTACHMENT_PREFIX = "attachment:";
+    
+    private final Parser parser;
+    private final HtmlRenderer renderer;
+    
+    MarkdownStorageRenderer() {
+        List<Extension> extensions = List.of(TablesExtension.create());
+        this.parser = Parser.builder().extensions(extensions).build();
+        this.renderer = HtmlRenderer.builder()
+                .extensions(extensions)
+                // Raw HTML could break the well-formed XHTML Confluence expects, so it is kept as text
+                .escapeHtml(true)
+                .sanitizeUrls(true)
+                .nodeRendererFactory(CodeMacroRenderer::new)
+                .nodeRendererFactory(ImageRenderer::new)
+                .build();
+    }
+    
+    // attachmentsByPosition holds the page's attachment filenames keyed by their PageAttachment position
+    String render(String markdown, Map<Integer, String> attachmentsByPosition) {
+        Node document = parser.parse(markdown);
+        document.accept(new AttachmentResolver(attachmentsByPosition));
+        StringBuilder out = new StringBuilder(markdown.length() + markdown.length() / 4);
+        renderer.render(document, out);
+        return out.toString();
+    }
+    
+    // Rewrites ![](attachment:<position>), ![](attachment:<filename>) and ![](<filename of an attachment>)
+    // to attachment:<filename>, which the image renderer turns into ri:attachment
+    private static class AttachmentResolver extends AbstractVisitor {
+        
+        private final Map<Integer, String> attachmentsByPosition;
+        private final Set<String> filenames;
+        
+        AttachmentResolver(Map<Integer, String> attachmentsByPosition) {
+            this.attachmentsByPosition = attachmentsByPosition;
+            this.filenames = new HashSet<>(attachmentsByPosition.values());
+        }
+        
+        @Override
+        public void visit(Image image) {
+            image.setDestination(resolve(image.getDestination()));
+            visitChildren(image);
+        }
+        
+        private String resolve(String destination) {
+            if (!destination.startsWith(ATTACHMENT_PREFIX)) {
+                return filenames.contains(destination) ? ATTACHMENT_PREFIX + destination : destination;
+            }
+            String reference = destination.substring(ATTACHMENT_PREFIX.length());
+            if (!reference.isEmpty() && reference.length() < 10 && reference.chars().allMatch(Character::isDigit)) {
+                String filename = attachmentsByPosition.get(Integer.parseInt(reference));
+                if (filename != null) {
+                    return ATTACHMENT_PREFIX + filename;
+                }
+            }
+            return destination;
+        }
+    }
+    
+    private static class CodeMacroRenderer implements NodeRenderer {
+        
+        private final HtmlWriter html;
+        
+        CodeMacroRenderer(HtmlNodeRendererContext context) {
+            this.html = context.getWriter();
+        }
+        
+        @Override
+        public Set<Class<? extends Node>> getNodeTypes() {
+            return Set.of(FencedCodeBlock.class, IndentedCodeBlock.class);
+        }
+        
+        @Override
+        public void render(Node node) {
+            String language = null;
+            String literal;
+            if (node instanceof FencedCodeBlock fencedCodeBlock) {
+                literal = fencedCodeBlock.getLiteral();
+                String info = fencedCodeBlock.getInfo();
+                if (info != null && !info.isBlank()) {
+                    language = info.trim().split("\\s+")[0];
+                }
+            } else {
+                literal = ((IndentedCodeBlock) node).getLiteral();
+            }
+            if (literal.endsWith("\n")) {
+                literal = literal.substring(0, literal.length() - 1);
+            }
+            
+            html.line();
+            html.raw("<ac:structured-macro ac:name=\"code\">");
+            if (language != null) {
+                html.raw("<ac:parameter ac:name=\"language\">");
+                html.text(language);
+                html.raw("</ac:parameter>");
+            }
+            // A CDATA section cannot contain "]]>", so that sequence is split across two sections
+            html.raw("<ac:plain-text-body><![CDATA[" + literal.replace("]]>", "]]]]><![CDATA[>")
+                    + "]]></ac:plain-text-body>");
+            html.raw("</ac:structured-macro>");
+            html.line();
+        }
+    }
+    
+    private static class ImageRenderer implements NodeRenderer {
+        
+        private final HtmlNodeRendererContext context;
+        private final HtmlWriter html;
+        
+        ImageRenderer(HtmlNodeRendererContext context) {
+            this.context = context;
+            this.html = context.getWriter();
+        }
+        
+        @Override
+        public Set<Class<? extends Node>> getNodeTypes() {
+            return Set.of(Image.class);
+        }
+        
+        @Override
+        public void render(Node node) {
+            Image image = (Image) node;
+            Map<String, String> attributes = new LinkedHashMap<>();
+            StringBuilder alt = new StringBuilder();
+            appendAltText(image, alt);
+            if (!alt.isEmpty()) {
+                attributes.put("ac:alt", alt.toString());
+            }
+            if (image.getTitle() != null) {
+                attributes.put("ac:title", image.getTitle());
+            }
+            
+            String destination = image.getDestination();
+            if (destination.startsWith(ATTACHMENT_PREFIX)) {
+                html.tag("ac:image", attributes);
+                html.tag("ri:attachment", Map.of("ri:filename", destination.substring(ATTACHMENT_PREFIX.length())), true);
+                html.tag("/ac:image");
+                return;
+            }
+            // The same scheme check links get, so javascript: and the like never reach the page
+            String url = context.shouldSanitizeUrls() ? context.urlSanitizer().sanitizeImageUrl(destination) : destination;
+            if (url.isEmpty()) {
+                html.text(alt.toString());
+                return;
+            }
+            html.tag("ac:image", attributes);
+            html.tag("ri:url", Map.of("ri:value", context.encodeUrl(url)), true);
+            html.tag("/ac:image");
+        }
+        
+        private static void appendAltText(Node parent, StringBuilder alt) {
+            for (Node child = parent.getFirstChild(); child != null; child = child.getNext()) {
+                if (child instanceof Text text) {
+                    alt.append(text.getLiteral());
+                } else if (child instanceof Code code) {
+                    alt.append(code.getLiteral());
+                } else if (child instanceof SoftLineBreak || child instanceof HardLineBreak) {
+                    alt.append(' ');
+                } else {
+                    appendAltText(child, alt);
+                }
+            }
+        }
+    }
+}
+
@@ -1,33 +1,47 @@
 package com.confluence.publisher.service;
 
+import com.confluence.publisher.config.CacheConfig;
 import com.confluence.publisher.dto.PageResponse;
-import com.confluence.publisher.entity.Attachment;
 import com.confluence.publisher.entity.Page;
 import com.confluence.publisher.entity.PageAttachment;
-import com.confluence.publisher.repository.AttachmentRepository;
+import com.confluence.publisher.exception.BadRequestException;
 import com.confluence.publisher.repository.PageAttachmentRepository;
 import com.confluence.publisher.repository.PageRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
 public class PageService {
     
+    // Stays well below SQLite's limit on bound parameters per statement
+    private static final int TREE_QUERY_CHUNK_SIZE = 500;
+    
     private final PageRepository pageRepository;
     private final PageAttachmentRepository pageAttachmentRepository;
-    private final AttachmentRepository attachmentRepository;
+    private final EntityManager entityManager;
+    private final ContentRenderService contentRenderService;
     
     @Transactional
-    public Page createPage(String title, String content, String spaceKey, Long parentPageId, List<Long> attachmentIds) {
+    public Page createPage(String title, String content, String contentFormat, String spaceKey, Long parentPageId,
+                           List<Long> attachmentIds) {
         Page page = Page.builder()
                 .title(title)
                 .content(content)
+                .contentFormat(contentFormat != null ? contentFormat : ContentRenderService.FORMAT_STORAGE)
                 .spaceKey(spaceKey)
                 .parentPageId(parentPageId)
                 .build();
@@ -47,35 +61,150 @@ public class PageService {
         return page;
     }
     
+    // Everything is flushed once, at commit, as one JDBC batch per table
+    @Transactional
+    public List<Page> createPages(List<NewPage> newPages) {
+        List<Page> pages = new ArrayList<>(newPages.size());
+        for (int i = 0; i < newPages.size(); i++) {
+            NewPage newPage = newPages.get(i);
+            Page page = Page.builder()
+                    .title(newPage.title())
+                    .content(newPage.content())
+                    .contentFormat(newPage.contentFormat() != null ? newPage.contentFormat() : ContentRenderService.FORMAT_STORAGE)
+                    .spaceKey(newPage.spaceKey())
+                    .parentPageId(newPage.parentPageId())
+                    .build();
+            // Ids are allocated up front (see BlockIdGenerator), so persist does not insert and the flush can batch
+            entityManager.persist(page);
+            
+            List<Long> attachmentIds = newPage.attachmentIds() != null ? newPage.attachmentIds() : Collections.emptyList();
+            for (int position = 0; position < attachmentIds.size(); position++) {
+                entityManager.persist(PageAttachment.builder()
+                        .pageId(page.getId())
+                        .attachmentId(attachmentIds.get(position))
+                        .position(position)
+                        .build());
+            }
+            pages.add(page);
+        }
+        return pages;
+    }
+    
+    // Cached responses are shared between callers and must not be modified. The ETag is computed from the
+    // same read as the body, so a cached response that lags a change still carries the tag of what it holds.
+    @Cacheable(CacheConfig.PAGES)
     @Transactional(readOnly = true)
     public PageResponse getPage(Long pageId) {
         Page page = pageRepository.findById(pageId)
                 .orElseThrow(() -> new RuntimeException("Page not found: " + pageId));
+        List<PageAttachmentRepository.AttachmentView> attachmentViews = pageAttachmentRepository.findAttachmentsByPageId(pageId);
         
-        List<PageAttachment> pageAttachmentList = pageAttachmentRepository.findByPageIdOrderByPosition(pageId);
-        List<PageResponse.AttachmentInfo> attachments = pageAttachmentList.stream()
-                .map(pa -> {
-                    Attachment attachment = attachmentRepository.findById(pa.getAttachmentId()).orElse(null);
-                    if (attachment != null) {
-                        return PageResponse.AttachmentInfo.builder()
-                                .id(attachment.getId())
-                                .filename(attachment.getFilename())
-                                .description(attachment.getDescription())
-                                .build();
-                    }
-                    return null;
-                })
-                .filter(a -> a != null)
+        List<PageResponse.AttachmentInfo> attachments = attachmentViews.stream()
+                .map(attachment -> PageResponse.AttachmentInfo.builder()
+                        .id(attachment.getId())
+                        .filename(attachment.getFilename())
+                        .description(attachment.getDescription())
+                        .build())
                 .toList();
         
         return PageResponse.builder()
                 .id(page.getId())
                 .title(page.getTitle())
                 .content(page.getContent())
+                .contentFormat(page.getContentFormat() != null ? page.getContentFormat() : ContentRenderService.FORMAT_STORAGE)
                 .spaceKey(page.getSpaceKey())
                 .parentPageId(page.getParentPageId())
                 .attachments(attachments)
+                .etag(pageEtag(page, attachmentViews))
                 .build();
     }
+    
+    // The storage format the page would be published with, tagged like getPage; Markdown renders come from
+    // the cache when unchanged
+    @Transactional(readOnly = true)
+    public RenderedPage renderPage(Long pageId) {
+        Page page = pageRepository.findById(pageId)
+                .orElseThrow(() -> new RuntimeException("Page not found: " + pageId));
+        List<PageAttachmentRepository.AttachmentView> attachments = pageAttachmentRepository.findAttachmentsByPageId(pageId);
+        return new RenderedPage(pageEtag(page, attachments),
+                contentRenderService.toStorage(page.getContent(), page.getContentFormat(), attachments));
+    }
+    
+    // Strong ETag of the page's current version, computed without loading the page content. Equal to the
+    // tag of getPage and renderPage for the same version, so it can answer conditional requests on its own.
+    @Transactional(readOnly = true)
+    public String getPageEtag(Long pageId) {
+        PageRepository.VersionView version = pageRepository.findVersionById(pageId)
+                .orElseThrow(() -> new RuntimeException("Page not found: " + pageId));
+        return pageEtag(pageId, version.getUpdatedAt(), version.getAttachmentCount(), version.getAttachmentIdSum());
+    }
+    
+    private static String pageEtag(Page page, List<PageAttachmentRepository.AttachmentView> attachments) {
+        long attachmentIdSum = attachments.stream().mapToLong(PageAttachmentRepository.AttachmentView::getId).sum();
+        return pageEtag(page.getId(), page.getUpdatedAt(), attachments.size(), attachmentIdSum);
+    }
+    
+    private static String pageEtag(Long pageId, Instant updatedAt, long attachmentCount, long attachmentIdSum) {
+        return "\"page-" + pageId + "-" + updatedAt.toEpochMilli() + "-" + attachmentCount + "-" + attachmentIdSum + "\"";
+    }
+    
+    @Transactional(readOnly = true)
+    public Map<Long, String> getSpaceKeys(Collection<Long> pageIds) {
+        if (pageIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return pageRepository.findSpaceKeysByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(PageRepository.SpaceKeyView::getId, PageRepository.SpaceKeyView::getSpaceKey));
+    }
+    
+    // The subtree below rootPageId in breadth-first order, each page mapped to its parent; the root maps to null
+    @Transactional(readOnly = true)
+    public Map<Long, Long> getSubtree(Long rootPageId, int maxPages) {
+        if (!pageRepository.existsById(rootPageId)) {
+            throw new RuntimeException("Page not found: " + rootPageId);
+        }
+        Map<Long, Long> tree = new LinkedHashMap<>();
+        tree.put(rootPageId, null);
+        List<Long> level = List.of(rootPageId);
+        while (!level.isEmpty()) {
+            List<Long> nextLevel = new ArrayList<>();
+            for (int from = 0; from < level.size(); from += TREE_QUERY_CHUNK_SIZE) {
+                List<Long> parentIds = level.subList(from, Math.min(from + TREE_QUERY_CHUNK_SIZE, level.size()));
+                for (PageRepository.TreeNodeView node : pageRepository.findTreeNodesByParentPageIdIn(parentIds)) {
+                    // A parent cycle leads back to a page already in the tree
+                    if (!tree.containsKey(node.getId())) {
+                        tree.put(node.getId(), node.getParentPageId());
+                        nextLevel.add(node.getId());
+                    }
+                }
+            }
+            if (tree.size() > maxPages) {
+                throw new BadRequestException(
+                        "Page tree below page " + rootPageId + " has more than " + maxPages + " pages");
+            }
+            level = nextLevel;
+        }
+        return tree;
+    }
+    
+    // Every page of a space mapped to its parent; pages whose parent is null or in another space are roots
+    @Transactional(readOnly = true)
+    public Map<Long, Long> getSpaceTree(String spaceKey, int maxPages) {
+        List<PageRepository.TreeNodeView> nodes = pageRepository.findTreeNodesBySpaceKey(spaceKey);
+        if (nodes.isEmpty()) {
+            throw new RuntimeException("Pages not found in space: " + spaceKey);
+        }
+        if (nodes.size() > maxPages) {
+            throw new BadRequestException("Space " + spaceKey + " has more than " + maxPages + " pages");
+        }
+        Map<Long, Long> tree = new LinkedHashMap<>();
+        nodes.forEach(node -> tree.put(node.getId(), node.getParentPageId()));
+        return tree;
+    }
+    
+    public record RenderedPage(String etag, String content) {}
+    
+    public record NewPage(String title, String content, String contentFormat, String spaceKey, Long parentPageId,
+                          List<Long> attachmentIds) {}
 }
 
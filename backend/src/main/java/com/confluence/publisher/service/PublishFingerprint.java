@@ -0,0 +1,47 @@
+package com.confluence.publisher.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+record PublishFingerprint(String fingerprint, String contentFingerprint, List<String> attachmentKeys) {
+    
+    static PublishFingerprint of(String spaceKey, String title, String content, String parentConfluencePageId,
+                                 List<String> attachmentKeys) {
+        String contentFingerprint = sha256(spaceKey, title, content, parentConfluencePageId);
+        String fingerprint = sha256(contentFingerprint, String.join(",", attachmentKeys));
+        return new PublishFingerprint(fingerprint, contentFingerprint, attachmentKeys);
+    }
+    
+    // Hex digest of the name and content an attachment was sent with. Filenames may contain anything,
+    // including the "," the stored key list is joined with, so they never appear in a key verbatim.
+    static String attachmentKey(String filename, String contentHash) {
+        return sha256(filename, contentHash);
+    }
+    
+    static List<String> parseAttachmentKeys(String attachmentFingerprints) {
+        if (attachmentFingerprints == null || attachmentFingerprints.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.asList(attachmentFingerprints.split(","));
+    }
+    
+    String attachmentFingerprints() {
+        return String.join(",", attachmentKeys);
+    }
+    
+    private static String sha256(String... parts) {
+        MessageDigest digest = AttachmentService.newDigest();
+        for (String part : parts) {
+            if (part != null) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+            }
+            // Separator keeps ("ab", "c") and ("a", "bc") from hashing to the same value
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
+
@@ -0,0 +1,171 @@
+package com.confluence.publisher.service;
+
+import com.confluence.publisher.config.AppProperties;
+import com.confluence.publisher.entity.PublishLog;
+import com.confluence.publisher.metrics.PublisherMetrics;
+import com.confluence.publisher.repository.PublishLogRepository;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Group commit for publish logs: concurrent publishes hand their log to one writer thread, which
+// inserts whatever has queued up in a single batched transaction. Callers still wait for their own
+// insert, so a log is durable and visible to the next publish of the page when append returns;
+// what changes is that N parallel publishes cost one write transaction instead of N.
+//
+// Must not be called from inside a write transaction: the flush needs the single writer connection.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PublishLogAppender {
+    
+    private final PublishLogRepository publishLogRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProperties appProperties;
+    private final PublisherMetrics publisherMetrics;
+    // Callers inside append that have not queued their log yet
+    private final AtomicInteger enqueuing = new AtomicInteger();
+    private BlockingQueue<PendingLog> queue;
+    private volatile boolean running;
+    private Thread writer;
+    
+    @PostConstruct
+    public void start() {
+        if (!appProperties.getPublishLogWriteBehind()) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(appProperties.getPublishLogQueueCapacity());
+        publisherMetrics.registerPublishLogQueue(queue);
+        running = true;
+        writer = Thread.ofPlatform().name("publish-log-writer").daemon(true).start(this::run);
+    }
+    
+    // Returns the saved log; blocks while the queue is full and until the log's batch has committed
+    public PublishLog append(PublishLog publishLog) {
+        if (queue == null) {
+            return publishLogRepository.save(publishLog);
+        }
+        PendingLog pending = new PendingLog(publishLog, new CompletableFuture<>());
+        long start = System.nanoTime();
+        enqueuing.incrementAndGet();
+        try {
+            if (!queue.offer(pending)) {
+                publisherMetrics.recordPublishLogBackPressure();
+                queue.put(pending);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while queueing publish log", e);
+        } finally {
+            enqueuing.decrementAndGet();
+        }
+        publisherMetrics.recordPublishLogEnqueueWait(System.nanoTime() - start);
+        if (!running) {
+            // Raced with shutdown after the writer's final drain; nobody else will flush this entry
+            flushRemaining();
+        }
+        try {
+            return pending.result().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtimeException
+                    ? runtimeException
+                    : new RuntimeException("Failed to save publish log", e.getCause());
+        }
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        // Not interrupted: an interrupt during a flush would abort the connection checkout and lose the batch
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        // Whatever the writer did not get to is saved before the persistence context goes away
+        flushRemaining();
+    }
+    
+    private void run() {
+        List<PendingLog> batch = new ArrayList<>();
+        while (running) {
+            try {
+                PendingLog first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Publish log writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    // Takes whatever is already queued. It only lingers for more while other producers are part way through
+    // append, so a lone publish is flushed at once instead of waiting out the flush interval.
+    private void collect(List<PendingLog> batch) throws InterruptedException {
+        int batchSize = appProperties.getPublishLogBatchSize();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(appProperties.getPublishLogFlushIntervalMs());
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            if (batch.size() >= batchSize || enqueuing.get() == 0) {
+                break;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            PendingLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+    
+    private synchronized void flushRemaining() {
+        List<PendingLog> batch = new ArrayList<>();
+        while (queue.drainTo(batch, appProperties.getPublishLogBatchSize()) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+    
+    private void flush(List<PendingLog> batch) {
+        Timer.Sample sample = publisherMetrics.startTimer();
+        try {
+            // Ids are allocated up front (see BlockIdGenerator), so the persists are sent as one JDBC batch at commit
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(pending -> entityManager.persist(pending.publishLog())));
+            batch.forEach(pending -> pending.result().complete(pending.publishLog()));
+            publisherMetrics.recordPublishLogFlush(sample, batch.size(), "success");
+        } catch (RuntimeException e) {
+            log.error("Failed to save a batch of {} publish logs", batch.size(), e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            publisherMetrics.recordPublishLogFlush(sample, batch.size(), "error");
+        }
+    }
+    
+    private record PendingLog(PublishLog publishLog, CompletableFuture<PublishLog> result) {}
+}
+
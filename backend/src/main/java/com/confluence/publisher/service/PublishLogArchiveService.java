@@ -0,0 +1,235 @@
+package com.confluence.publisher.service;
+
+import com.confluence.publisher.config.AppProperties;
+import com.confluence.publisher.dto.PublishLogRecord;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Moves old publish logs out of SQLite into one gzip-compressed NDJSON segment per UTC day:
+// <archive-dir>/publishlog/<yyyy>/publishlog-<yyyy-MM-dd>.ndjson.gz
+// Each archive batch appends a new gzip member to the day's segment, is fsynced and only then deleted
+// from the table, so a crash in between can leave duplicate lines (skipped on read) but never loses rows.
+@Service
+@Slf4j
+public class PublishLogArchiveService {
+    
+    private static final String SEGMENT_PREFIX = "publishlog-";
+    private static final String SEGMENT_SUFFIX = ".ndjson.gz";
+    // The latest successful log per page and provider is kept: PublishService reads it to update the
+    // existing Confluence page and to resolve parents, so archiving it would publish duplicates.
+    // Every column is archived, since the rows are deleted from the table afterwards.
+    private static final String SELECT_ARCHIVABLE =
+            "SELECT p.id, p.page_id, p.provider, p.space_key, p.confluence_page_id, p.status, p.message, p.created_at, " +
+            "p.fingerprint, p.content_fingerprint, p.attachment_fingerprints " +
+            "FROM publishlog p WHERE p.created_at < ? AND p.id > ? " +
+            "AND (p.status NOT IN ('published', 'partial', 'no-op') OR EXISTS (" +
+            "SELECT 1 FROM publishlog n WHERE n.page_id = p.page_id AND n.provider = p.provider " +
+            "AND n.status IN ('published', 'partial', 'no-op') AND n.id > p.id)) " +
+            "ORDER BY p.id LIMIT ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter recordWriter;
+    private final AppProperties appProperties;
+    
+    public PublishLogArchiveService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    AppProperties appProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.recordWriter = objectMapper.writerFor(PublishLogRecord.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.appProperties = appProperties;
+    }
+    
+    // Archives every log created before the cutoff; returns the number of rows moved
+    public long archiveOlderThan(Instant cutoff) throws IOException {
+        Path root = archiveRoot();
+        Files.createDirectories(root);
+        // Keeps two nodes sharing the data directory from archiving the same rows twice
+        try (FileChannel lockChannel = FileChannel.open(root.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = lockChannel.tryLock()) {
+            if (lock == null) {
+                log.info("Publish log archiving is already running elsewhere, skipping");
+                return 0;
+            }
+            long archived = 0;
+            long lastId = 0;
+            int batchSize = appProperties.getRetentionBatchSize();
+            while (true) {
+                long afterId = lastId;
+                List<PublishLogRecord> batch = readOnlyTransaction.execute(status -> jdbcTemplate.query(
+                        SELECT_ARCHIVABLE,
+                        (rs, rowNum) -> toArchiveRecord(rs),
+                        Timestamp.from(cutoff), afterId, batchSize));
+                if (batch == null || batch.isEmpty()) {
+                    break;
+                }
+                appendToSegments(batch);
+                deleteArchived(batch);
+                archived += batch.size();
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+            if (archived > 0) {
+                log.info("Archived {} publish logs created before {}", archived, cutoff);
+            }
+            return archived;
+        }
+    }
+    
+    // Streams archived logs matching the filter as NDJSON; only the day segments inside [from, to) are opened
+    public void readArchive(PublishLogFilter filter, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (LocalDate day = toDay(filter.from()); !day.isAfter(toDay(filter.to().minusNanos(1))); day = day.plusDays(1)) {
+                Path segment = segmentPath(day);
+                if (!Files.exists(segment)) {
+                    continue;
+                }
+                Set<Long> seenIds = new HashSet<>();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(Files.newInputStream(segment), 64 * 1024), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isBlank()) {
+                            continue;
+                        }
+                        PublishLogRecord record = objectMapper.readValue(line, PublishLogRecord.class);
+                        if (matches(record, filter) && seenIds.add(record.getId())) {
+                            recordWriter.writeValue(generator, record);
+                            generator.writeRaw('\n');
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    public List<SegmentInfo> listSegments() throws IOException {
+        Path root = archiveRoot();
+        if (!Files.exists(root)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> paths = Files.walk(root, 2)) {
+            return paths
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .map(path -> {
+                        String name = path.getFileName().toString();
+                        LocalDate day = LocalDate.parse(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                        try {
+                            return new SegmentInfo(day, Files.size(path));
+                        } catch (IOException e) {
+                            return new SegmentInfo(day, -1);
+                        }
+                    })
+                    .sorted((a, b) -> a.day().compareTo(b.day()))
+                    .toList();
+        }
+    }
+    
+    private void appendToSegments(List<PublishLogRecord> batch) throws IOException {
+        Map<LocalDate, List<PublishLogRecord>> byDay = new TreeMap<>();
+        for (PublishLogRecord record : batch) {
+            byDay.computeIfAbsent(toDay(record.getCreatedAt()), day -> new ArrayList<>()).add(record);
+        }
+        for (Map.Entry<LocalDate, List<PublishLogRecord>> entry : byDay.entrySet()) {
+            Path segment = segmentPath(entry.getKey());
+            Files.createDirectories(segment.getParent());
+            try (FileChannel channel = FileChannel.open(segment,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                // Concatenated gzip members form a valid gzip stream, so appending never rewrites the segment
+                GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(gzip);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                for (PublishLogRecord record : entry.getValue()) {
+                    recordWriter.writeValue(generator, record);
+                    generator.writeRaw('\n');
+                }
+                generator.close();
+                gzip.finish();
+                gzip.flush();
+                channel.force(true);
+            }
+        }
+    }
+    
+    private static PublishLogRecord toArchiveRecord(ResultSet rs) throws SQLException {
+        PublishLogRecord record = PublishLogExportService.toRecord(rs);
+        record.setFingerprint(rs.getString("fingerprint"));
+        record.setContentFingerprint(rs.getString("content_fingerprint"));
+        record.setAttachmentFingerprints(rs.getString("attachment_fingerprints"));
+        return record;
+    }
+    
+    private void deleteArchived(List<PublishLogRecord> batch) {
+        String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+        Object[] ids = batch.stream().map(PublishLogRecord::getId).toArray();
+        jdbcTemplate.update("DELETE FROM publishlog WHERE id IN (" + placeholders + ")", ids);
+    }
+    
+    private static boolean matches(PublishLogRecord record, PublishLogFilter filter) {
+        Instant createdAt = record.getCreatedAt();
+        return (filter.from() == null || (createdAt != null && !createdAt.isBefore(filter.from())))
+                && (filter.to() == null || (createdAt != null && createdAt.isBefore(filter.to())))
+                && (filter.pageId() == null || filter.pageId().equals(record.getPageId()))
+                && (filter.spaceKey() == null || filter.spaceKey().equals(record.getSpaceKey()))
+                && (filter.status() == null || filter.status().equals(record.getStatus()));
+    }
+    
+    private Path archiveRoot() {
+        return Paths.get(appProperties.getArchiveDir()).resolve("publishlog");
+    }
+    
+    private Path segmentPath(LocalDate day) {
+        return archiveRoot().resolve(String.valueOf(day.getYear())).resolve(SEGMENT_PREFIX + day + SEGMENT_SUFFIX);
+    }
+    
+    private static LocalDate toDay(Instant instant) {
+        return LocalDate.ofInstant(instant != null ? instant : Instant.EPOCH, ZoneOffset.UTC);
+    }
+    
+    public record SegmentInfo(LocalDate day, long sizeBytes) {}
+}
+
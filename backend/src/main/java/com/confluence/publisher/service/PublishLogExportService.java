@@ -0,0 +1,160 @@
+package com.confluence.publisher.service;
+
+import com.confluence.publisher.config.AppProperties;
+import com.confluence.publisher.dto.PublishLogRecord;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streams publish logs straight from a forward-only JDBC cursor to the response, one row at a time,
+// so memory stays flat however many rows match
+@Service
+@Slf4j
+public class PublishLogExportService {
+    
+    private static final String SELECT_COLUMNS =
+            "SELECT id, page_id, provider, space_key, confluence_page_id, status, message, created_at FROM publishlog";
+    private static final String CSV_HEADER = "id,pageId,provider,spaceKey,confluencePageId,status,message,createdAt";
+    
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter recordWriter;
+    
+    public PublishLogExportService(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   ObjectMapper objectMapper,
+                                   AppProperties appProperties) {
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(appProperties.getExportFetchSize());
+        // Read-only transactions are routed to the reader pool and never hold the writer connection
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        // Let the generator's buffer decide when to hit the socket instead of flushing every row
+        this.recordWriter = objectMapper.writerFor(PublishLogRecord.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+    
+    public void exportNdjson(PublishLogFilter filter, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            stream(filter, rs -> {
+                recordWriter.writeValue(generator, toRecord(rs));
+                generator.writeRaw('\n');
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    public void exportCsv(PublishLogFilter filter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            stream(filter, rs -> {
+                PublishLogRecord record = toRecord(rs);
+                writer.write(String.join(",",
+                        String.valueOf(record.getId()),
+                        String.valueOf(record.getPageId()),
+                        csv(record.getProvider()),
+                        csv(record.getSpaceKey()),
+                        csv(record.getConfluencePageId()),
+                        csv(record.getStatus()),
+                        csv(record.getMessage()),
+                        record.getCreatedAt() != null ? record.getCreatedAt().toString() : ""));
+                writer.write('\n');
+            });
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    public static PublishLogRecord toRecord(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return PublishLogRecord.builder()
+                .id(rs.getLong("id"))
+                .pageId(rs.getLong("page_id"))
+                .provider(rs.getString("provider"))
+                .spaceKey(rs.getString("space_key"))
+                .confluencePageId(rs.getString("confluence_page_id"))
+                .status(rs.getString("status"))
+                .message(rs.getString("message"))
+                .createdAt(createdAt != null ? createdAt.toInstant() : null)
+                .build();
+    }
+    
+    private void stream(PublishLogFilter filter, RowWriter rowWriter) {
+        List<Object> args = new ArrayList<>();
+        String sql = SELECT_COLUMNS + where(filter, args) + " ORDER BY created_at, id";
+        readOnlyTransaction.executeWithoutResult(status -> streamingJdbcTemplate.query(sql, rs -> {
+            try {
+                rowWriter.write(rs);
+            } catch (IOException e) {
+                // Usually the client went away; abandon the cursor
+                throw new UncheckedIOException(e);
+            }
+        }, args.toArray()));
+    }
+    
+    private static String where(PublishLogFilter filter, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.from() != null) {
+            conditions.add("created_at >= ?");
+            args.add(Timestamp.from(filter.from()));
+        }
+        if (filter.to() != null) {
+            conditions.add("created_at < ?");
+            args.add(Timestamp.from(filter.to()));
+        }
+        if (filter.pageId() != null) {
+            conditions.add("page_id = ?");
+            args.add(filter.pageId());
+        }
+        if (filter.spaceKey() != null) {
+            conditions.add("space_key = ?");
+            args.add(filter.spaceKey());
+        }
+        if (filter.status() != null) {
+            conditions.add("status = ?");
+            args.add(filter.status());
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+    
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+    
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+}
+
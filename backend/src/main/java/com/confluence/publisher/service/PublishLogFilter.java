@@ -0,0 +1,7 @@
+package com.confluence.publisher.service;
+
+import java.time.Instant;
+
+// All fields optional; from is inclusive and to exclusive on createdAt
+public record PublishLogFilter(Instant from, Instant to, Long pageId, String spaceKey, String status) {}
+
@@ -1,21 +1,22 @@
 package com.confluence.publisher.service;
 
-import com.confluence.publisher.entity.Attachment;
 import com.confluence.publisher.entity.Page;
-import com.confluence.publisher.entity.PageAttachment;
 import com.confluence.publisher.entity.PublishLog;
+import com.confluence.publisher.metrics.PublisherMetrics;
 import com.confluence.publisher.provider.BaseProvider;
+import com.confluence.publisher.provider.ProviderException;
 import com.confluence.publisher.provider.ProviderFactory;
-import com.confluence.publisher.repository.AttachmentRepository;
 import com.confluence.publisher.repository.PageAttachmentRepository;
 import com.confluence.publisher.repository.PageRepository;
 import com.confluence.publisher.repository.PublishLogRepository;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,46 +24,177 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PublishService {
     
+    // A partial publish wrote the page but not every attachment; it still counts as the base for the next publish
+    private static final List<String> SUCCESS_STATUSES = List.of("published", "partial", "no-op");
+    
     private final PageRepository pageRepository;
     private final PageAttachmentRepository pageAttachmentRepository;
-    private final AttachmentRepository attachmentRepository;
     private final PublishLogRepository publishLogRepository;
     private final ProviderFactory providerFactory;
+    private final PublisherMetrics publisherMetrics;
+    private final PublishLogAppender publishLogAppender;
+    private final ContentRenderService contentRenderService;
     
-    @Transactional
     public PublishLog publishPage(Long pageId) {
+        return publishPage(pageId, true);
+    }
+    
+    // Deliberately not transactional: the provider call can take seconds and must not pin the
+    // single writer connection. Reads go to the reader pool and the log insert is its own short write.
+    // With failOnPartial off, a page that reached Confluence with some attachments missing returns its partial log.
+    public PublishLog publishPage(Long pageId, boolean failOnPartial) {
         Page page = pageRepository.findById(pageId)
                 .orElseThrow(() -> new RuntimeException("Page not found: " + pageId));
         
-        List<PageAttachment> pageAttachmentList = pageAttachmentRepository.findByPageIdOrderByPosition(pageId);
-        List<String> attachmentPaths = pageAttachmentList.stream()
-                .map(pa -> {
-                    Attachment attachment = attachmentRepository.findById(pa.getAttachmentId())
-                            .orElse(null);
-                    return attachment != null ? attachment.getStoragePath() : null;
-                })
-                .filter(path -> path != null)
-                .collect(Collectors.toList());
+        Timer.Sample sample = publisherMetrics.startTimer();
+        Outcome outcome;
+        try {
+            outcome = publish(page);
+        } catch (RuntimeException e) {
+            publisherMetrics.recordPublish(sample, providerFactory.getProviderName(), page.getSpaceKey(), "error");
+            throw e;
+        }
+        PublishLog publishLog = outcome.publishLog();
+        publisherMetrics.recordPublish(sample, publishLog.getProvider(), page.getSpaceKey(), publishLog.getStatus());
+        if (failOnPartial && outcome.attachmentFailure() != null) {
+            // Failing the attempt lets the schedule retry; the next publish resends only the missing attachments
+            throw outcome.attachmentFailure();
+        }
+        return publishLog;
+    }
+    
+    private Outcome publish(Page page) {
+        Long pageId = page.getId();
+        List<PageAttachmentRepository.AttachmentView> attachmentViews = pageAttachmentRepository.findAttachmentsByPageId(pageId);
+        String providerName = providerFactory.getProviderName();
+        String parentConfluencePageId = resolveParentConfluencePageId(page, providerName);
+        // Fingerprints cover the storage format actually sent, so a renderer change also counts as a content change
+        String content = contentRenderService.toStorage(page.getContent(), page.getContentFormat(), attachmentViews);
+        List<String> attachmentKeys = attachmentViews.stream()
+                .map(PublishService::attachmentKey)
+                .toList();
+        PublishFingerprint fingerprint = PublishFingerprint.of(
+                page.getSpaceKey(), page.getTitle(), content, parentConfluencePageId, attachmentKeys);
         
-        BaseProvider provider = providerFactory.getProvider();
-        BaseProvider.ProviderResult result = provider.publishPage(
-            page.getSpaceKey(),
-            page.getTitle(),
-            page.getContent(),
-            page.getParentPageId(),
-            attachmentPaths
-        );
+        PublishLog previous = publishLogRepository
+                .findFirstByPageIdAndProviderAndStatusInOrderByIdDesc(pageId, providerName, SUCCESS_STATUSES)
+                .orElse(null);
         
-        PublishLog publishLog = PublishLog.builder()
+        PublishLog.PublishLogBuilder publishLog = PublishLog.builder()
                 .pageId(pageId)
-                .provider(providerFactory.getProviderName())
+                .provider(providerName)
                 .spaceKey(page.getSpaceKey())
-                .confluencePageId(result.confluencePageId())
-                .status("published")
-                .message(result.message())
-                .build();
+                .fingerprint(fingerprint.fingerprint())
+                .contentFingerprint(fingerprint.contentFingerprint())
+                .attachmentFingerprints(fingerprint.attachmentFingerprints());
+        
+        if (previous != null && fingerprint.fingerprint().equals(previous.getFingerprint())) {
+            log.debug("Page {} is unchanged since publish log {}, skipping provider call", pageId, previous.getId());
+            return new Outcome(publishLogAppender.append(publishLog
+                    .confluencePageId(previous.getConfluencePageId())
+                    .status("no-op")
+                    .message("Unchanged since publish log " + previous.getId())
+                    .build()), null);
+        }
+        
+        BaseProvider provider = providerFactory.getProvider();
+        BaseProvider.ProviderResult result;
+        if (previous != null && previous.getConfluencePageId() != null && previous.getFingerprint() != null) {
+            // Only resend what differs from the last successful publish
+            boolean contentChanged = !fingerprint.contentFingerprint().equals(previous.getContentFingerprint());
+            Set<String> publishedKeys = new HashSet<>(
+                    PublishFingerprint.parseAttachmentKeys(previous.getAttachmentFingerprints()));
+            List<BaseProvider.AttachmentFile> changedAttachments = attachmentViews.stream()
+                    .filter(attachment -> !publishedKeys.contains(attachmentKey(attachment)))
+                    .map(PublishService::toAttachmentFile)
+                    .collect(Collectors.toList());
+            result = provider.updatePage(
+                previous.getConfluencePageId(),
+                page.getSpaceKey(),
+                page.getTitle(),
+                contentChanged ? content : null,
+                parentConfluencePageId,
+                changedAttachments
+            );
+        } else {
+            result = provider.publishPage(
+                page.getSpaceKey(),
+                page.getTitle(),
+                content,
+                parentConfluencePageId,
+                attachmentViews.stream().map(PublishService::toAttachmentFile).collect(Collectors.toList())
+            );
+        }
         
-        return publishLogRepository.save(publishLog);
+        List<BaseProvider.AttachmentResult> failed = result.failedAttachments();
+        publisherMetrics.recordAttachmentTransfers(providerName, result.attachments().size() - failed.size(), failed.size());
+        if (failed.isEmpty()) {
+            return new Outcome(publishLogAppender.append(publishLog
+                    .confluencePageId(result.confluencePageId())
+                    .status("published")
+                    .message(result.message())
+                    .build()), null);
+        }
+        
+        // Record only what reached Confluence, so the fingerprint differs from the page's and the
+        // next publish sends the failed attachments alone, without the unchanged body
+        Set<String> failedPaths = failed.stream()
+                .map(attachment -> attachment.attachment().path())
+                .collect(Collectors.toSet());
+        List<String> deliveredKeys = attachmentViews.stream()
+                .filter(attachment -> !failedPaths.contains(attachment.getStoragePath()))
+                .map(PublishService::attachmentKey)
+                .toList();
+        PublishFingerprint delivered = PublishFingerprint.of(
+                page.getSpaceKey(), page.getTitle(), content, parentConfluencePageId, deliveredKeys);
+        String message = failed.size() + " of " + attachmentViews.size() + " attachments failed: " + failed.stream()
+                .map(attachment -> attachment.attachment().filename() + " (" + attachment.error().getMessage() + ")")
+                .collect(Collectors.joining(", "));
+        PublishLog partial = publishLogAppender.append(publishLog
+                .confluencePageId(result.confluencePageId())
+                .status("partial")
+                .message(message)
+                .fingerprint(delivered.fingerprint())
+                .attachmentFingerprints(delivered.attachmentFingerprints())
+                .build());
+        ProviderException firstError = failed.stream()
+                .map(BaseProvider.AttachmentResult::error)
+                .filter(ProviderException::isRetryable)
+                .findFirst()
+                .orElse(failed.get(0).error());
+        return new Outcome(partial, new ProviderException(firstError.getStatusCode(),
+                "Page " + pageId + " published to " + result.confluencePageId() + " but " + message));
+    }
+    
+    // Confluence needs the parent's Confluence id, not our local page id. Ids are only meaningful to the
+    // provider that issued them, so a parent published elsewhere counts as not published yet.
+    private String resolveParentConfluencePageId(Page page, String providerName) {
+        if (page.getParentPageId() == null) {
+            return null;
+        }
+        return publishLogRepository
+                .findFirstByPageIdAndProviderAndStatusInOrderByIdDesc(page.getParentPageId(), providerName, SUCCESS_STATUSES)
+                .map(PublishLog::getConfluencePageId)
+                .orElseGet(() -> {
+                    log.warn("Parent page {} of page {} has not been published yet, publishing without a parent",
+                             page.getParentPageId(), page.getId());
+                    return null;
+                });
+    }
+    
+    private static BaseProvider.AttachmentFile toAttachmentFile(PageAttachmentRepository.AttachmentView attachment) {
+        return new BaseProvider.AttachmentFile(
+                attachment.getStoragePath(),
+                attachment.getFilename(),
+                attachment.getContentType());
+    }
+    
+    private record Outcome(PublishLog publishLog, ProviderException attachmentFailure) {}
+    
+    // Attachments stored before content addressing have no hash, so fall back to their unique path
+    private static String attachmentKey(PageAttachmentRepository.AttachmentView attachment) {
+        String contentHash = attachment.getContentHash() != null ? attachment.getContentHash() : attachment.getStoragePath();
+        return PublishFingerprint.attachmentKey(attachment.getFilename(), contentHash);
     }
 }
 
@@ -0,0 +1,77 @@
+package com.confluence.publisher.service;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Progress of one tree publish; nodes are listed parents-first and updated by the publishing threads
+@Getter
+public class PublishTreeJob {
+    
+    private final String id = UUID.randomUUID().toString();
+    private final Instant createdAt = Instant.now();
+    private final Map<Long, Node> nodes;
+    private final List<Node> roots;
+    private final AtomicInteger remaining;
+    private volatile Instant finishedAt;
+    
+    PublishTreeJob(Map<Long, Node> nodes, List<Node> roots) {
+        this.nodes = Collections.unmodifiableMap(nodes);
+        this.roots = List.copyOf(roots);
+        this.remaining = new AtomicInteger(nodes.size());
+    }
+    
+    public String getStatus() {
+        if (finishedAt == null) {
+            return "running";
+        }
+        boolean failed = nodes.values().stream()
+                .anyMatch(node -> "failed".equals(node.getStatus()) || "skipped".equals(node.getStatus()));
+        return failed ? "completed-with-errors" : "completed";
+    }
+    
+    // Returns true for the node that finished the job
+    boolean complete(Node node, String status, String confluencePageId, String message) {
+        node.status = status;
+        node.confluencePageId = confluencePageId;
+        node.message = message;
+        node.finishedAt = Instant.now();
+        if (remaining.decrementAndGet() == 0) {
+            finishedAt = Instant.now();
+            return true;
+        }
+        return false;
+    }
+    
+    @Getter
+    public static class Node {
+        
+        private final Long pageId;
+        private final Long parentPageId;
+        private final int depth;
+        private final List<Node> children = new ArrayList<>();
+        private volatile String status = "pending";
+        private volatile String confluencePageId;
+        private volatile String message;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        
+        Node(Long pageId, Long parentPageId, int depth) {
+            this.pageId = pageId;
+            this.parentPageId = parentPageId;
+            this.depth = depth;
+        }
+        
+        void start() {
+            status = "publishing";
+            startedAt = Instant.now();
+        }
+    }
+}
+
@@ -0,0 +1,159 @@
+package com.confluence.publisher.service;
+
+import com.confluence.publisher.config.AppProperties;
+import com.confluence.publisher.entity.PublishLog;
+import com.confluence.publisher.exception.BadRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+// Publishes a page tree parents-first: a page is submitted as soon as its parent has a Confluence id,
+// so independent sibling subtrees proceed in parallel up to publishTreeParallelism pages at a time
+@Service
+@Slf4j
+public class PublishTreeService {
+    
+    private final PageService pageService;
+    private final PublishService publishService;
+    private final AppProperties appProperties;
+    private final ExecutorService publishExecutor;
+    private final Semaphore permits;
+    private final Map<String, PublishTreeJob> jobs = new ConcurrentHashMap<>();
+    
+    public PublishTreeService(PageService pageService,
+                              PublishService publishService,
+                              AppProperties appProperties,
+                              @Qualifier("publishExecutor") ExecutorService publishExecutor) {
+        this.pageService = pageService;
+        this.publishService = publishService;
+        this.appProperties = appProperties;
+        this.publishExecutor = publishExecutor;
+        this.permits = new Semaphore(Math.max(1, appProperties.getPublishTreeParallelism()), true);
+    }
+    
+    public PublishTreeJob startJob(Long rootPageId, String spaceKey) {
+        if ((rootPageId == null) == (spaceKey == null || spaceKey.isBlank())) {
+            throw new BadRequestException("Exactly one of rootPageId and spaceKey is required");
+        }
+        Map<Long, Long> parents = rootPageId != null
+                ? pageService.getSubtree(rootPageId, appProperties.getPublishTreeMaxPages())
+                : pageService.getSpaceTree(spaceKey, appProperties.getPublishTreeMaxPages());
+        
+        evictExpiredJobs();
+        PublishTreeJob job = buildJob(parents);
+        jobs.put(job.getId(), job);
+        log.info("Publishing page tree as job {}: {} pages, {} roots", job.getId(), parents.size(), job.getRoots().size());
+        
+        // Pages caught in a parent cycle are never reached from a root
+        job.getNodes().values().stream()
+                .filter(node -> node.getDepth() < 0)
+                .forEach(node -> complete(job, node, "skipped", null, "Page is part of a parent cycle"));
+        job.getRoots().forEach(root -> submit(job, root));
+        return job;
+    }
+    
+    public PublishTreeJob getJob(String jobId) {
+        PublishTreeJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Publish tree job not found: " + jobId);
+        }
+        return job;
+    }
+    
+    private PublishTreeJob buildJob(Map<Long, Long> parents) {
+        Map<Long, List<Long>> children = new LinkedHashMap<>();
+        List<Long> rootIds = new ArrayList<>();
+        parents.forEach((pageId, parentId) -> {
+            if (parentId == null || !parents.containsKey(parentId)) {
+                rootIds.add(pageId);
+            } else {
+                children.computeIfAbsent(parentId, key -> new ArrayList<>()).add(pageId);
+            }
+        });
+        
+        // Breadth-first from the roots, so the node map lists every parent before its children
+        Map<Long, PublishTreeJob.Node> nodes = new LinkedHashMap<>();
+        List<PublishTreeJob.Node> roots = new ArrayList<>();
+        Deque<PublishTreeJob.Node> queue = new ArrayDeque<>();
+        for (Long rootId : rootIds) {
+            PublishTreeJob.Node root = new PublishTreeJob.Node(rootId, parents.get(rootId), 0);
+            nodes.put(rootId, root);
+            roots.add(root);
+            queue.add(root);
+        }
+        while (!queue.isEmpty()) {
+            PublishTreeJob.Node parent = queue.poll();
+            for (Long childId : children.getOrDefault(parent.getPageId(), List.of())) {
+                PublishTreeJob.Node child = new PublishTreeJob.Node(childId, parent.getPageId(), parent.getDepth() + 1);
+                nodes.put(childId, child);
+                parent.getChildren().add(child);
+                queue.add(child);
+            }
+        }
+        parents.forEach((pageId, parentId) -> nodes.computeIfAbsent(pageId, key -> new PublishTreeJob.Node(key, parentId, -1)));
+        return new PublishTreeJob(nodes, roots);
+    }
+    
+    private void submit(PublishTreeJob job, PublishTreeJob.Node node) {
+        publishExecutor.execute(() -> publishNode(job, node));
+    }
+    
+    private void publishNode(PublishTreeJob job, PublishTreeJob.Node node) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            complete(job, node, "failed", null, "Interrupted before publishing");
+            skipChildren(job, node);
+            return;
+        }
+        
+        PublishLog publishLog;
+        try {
+            node.start();
+            // A partial publish still gives the page a Confluence id, which is all its children need
+            publishLog = publishService.publishPage(node.getPageId(), false);
+        } catch (RuntimeException e) {
+            log.warn("Tree job {} failed to publish page {}: {}", job.getId(), node.getPageId(), e.getMessage());
+            complete(job, node, "failed", null, e.getMessage());
+            skipChildren(job, node);
+            return;
+        } finally {
+            permits.release();
+        }
+        
+        complete(job, node, publishLog.getStatus(), publishLog.getConfluencePageId(), publishLog.getMessage());
+        node.getChildren().forEach(child -> submit(job, child));
+    }
+    
+    private void skipChildren(PublishTreeJob job, PublishTreeJob.Node node) {
+        for (PublishTreeJob.Node child : node.getChildren()) {
+            complete(job, child, "skipped", null, "Parent page " + node.getPageId() + " was not published");
+            skipChildren(job, child);
+        }
+    }
+    
+    private void complete(PublishTreeJob job, PublishTreeJob.Node node, String status, String confluencePageId, String message) {
+        if (job.complete(node, status, confluencePageId, message)) {
+            log.info("Tree job {} finished with status {}", job.getId(), job.getStatus());
+        }
+    }
+    
+    private void evictExpiredJobs() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(appProperties.getPublishTreeJobTtlMinutes()));
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+}
+
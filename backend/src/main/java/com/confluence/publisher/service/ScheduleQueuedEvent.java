@@ -0,0 +1,7 @@
+package com.confluence.publisher.service;
+
+import java.time.Instant;
+
+// Published whenever a schedule becomes queued for a (new) due time
+public record ScheduleQueuedEvent(Long scheduleId, Instant dueAt) {}
+
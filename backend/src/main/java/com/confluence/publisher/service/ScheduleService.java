@@ -3,19 +3,26 @@ package com.confluence.publisher.service;
 import com.confluence.publisher.entity.Schedule;
 import com.confluence.publisher.repository.ScheduleRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class ScheduleService {
     
+    private static final int MAX_PAGE_SIZE = 1000;
+    
     private final ScheduleRepository scheduleRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public Schedule createSchedule(Long pageId, Instant scheduledAt) {
@@ -23,9 +30,12 @@ public class ScheduleService {
         Schedule schedule = Schedule.builder()
                 .pageId(pageId)
                 .scheduledAt(when)
+                .nextAttemptAt(when)
                 .status("queued")
                 .build();
-        return scheduleRepository.save(schedule);
+        schedule = scheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new ScheduleQueuedEvent(schedule.getId(), when));
+        return schedule;
     }
     
     @Transactional(readOnly = true)
@@ -34,24 +44,152 @@ public class ScheduleService {
                 .orElseThrow(() -> new RuntimeException("Schedule not found: " + scheduleId));
     }
     
+    // Strong ETag for GET /api/schedules/{id}; the other response fields only change together with these
     @Transactional(readOnly = true)
-    public List<Schedule> listSchedules(int limit) {
-        return scheduleRepository.findAll(
-                PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "id"))
-        ).toList();
+    public String getScheduleEtag(Long scheduleId) {
+        ScheduleRepository.VersionView version = scheduleRepository.findVersionById(scheduleId)
+                .orElseThrow(() -> new RuntimeException("Schedule not found: " + scheduleId));
+        long nextAttemptAt = version.getNextAttemptAt() != null ? version.getNextAttemptAt().toEpochMilli() : 0;
+        return "\"schedule-" + scheduleId + "-" + version.getStatus() + "-" + version.getAttemptCount() + "-" + nextAttemptAt + "\"";
     }
     
+    // Keyset pagination: newest first by id, each page continuing below the previous page's last row, so a page
+    // costs the same at any depth of history. A from/to filter orders by (scheduledAt, id) instead, which the
+    // (scheduled_at, id) index serves without sorting the whole range; the cursor is still the last row's id.
     @Transactional(readOnly = true)
-    public List<Schedule> findQueuedSchedules(Instant now) {
-        return scheduleRepository.findQueuedSchedulesBefore(now);
+    public ScheduleSlice listSchedules(ScheduleFilter filter, Long cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        boolean byScheduledAt = filter.from() != null || filter.to() != null;
+        Instant cursorScheduledAt = byScheduledAt && cursor != null
+                ? scheduleRepository.findScheduledAtById(cursor)
+                        .orElseThrow(() -> new RuntimeException("Schedule not found: " + cursor))
+                : null;
+        Specification<Schedule> specification = Specification.allOf(
+                equalTo("status", filter.status()),
+                equalTo("pageId", filter.pageId()),
+                (root, query, cb) -> filter.from() != null ? cb.greaterThanOrEqualTo(root.<Instant>get("scheduledAt"), filter.from()) : null,
+                (root, query, cb) -> filter.to() != null ? cb.lessThan(root.<Instant>get("scheduledAt"), filter.to()) : null,
+                (root, query, cb) -> {
+                    if (cursor == null) {
+                        return null;
+                    }
+                    if (!byScheduledAt) {
+                        return cb.lessThan(root.<Long>get("id"), cursor);
+                    }
+                    return cb.or(
+                            cb.lessThan(root.<Instant>get("scheduledAt"), cursorScheduledAt),
+                            cb.and(cb.equal(root.get("scheduledAt"), cursorScheduledAt), cb.lessThan(root.<Long>get("id"), cursor)));
+                }
+        );
+        Sort order = byScheduledAt
+                ? Sort.by(Sort.Direction.DESC, "scheduledAt", "id")
+                : Sort.by(Sort.Direction.DESC, "id");
+        List<Schedule> schedules = scheduleRepository.findBy(specification, query -> query
+                .sortBy(order)
+                .limit(pageSize + 1)
+                .all());
+        if (schedules.size() <= pageSize) {
+            return new ScheduleSlice(schedules, null);
+        }
+        List<Schedule> page = schedules.subList(0, pageSize);
+        return new ScheduleSlice(page, page.get(pageSize - 1).getId());
     }
     
+    // Rows with an expired lease are claimable again, so schedules held by a dead node get picked up
     @Transactional
-    public void updateScheduleStatus(Schedule schedule, String status, String error) {
-        schedule.setStatus(status);
+    public List<Schedule> claimDueSchedules(String owner, Instant now, Duration leaseDuration, int batchSize) {
+        List<Long> candidateIds = scheduleRepository.findClaimableScheduleIds(now, PageRequest.of(0, batchSize));
+        return claimSchedules(owner, candidateIds, now, leaseDuration);
+    }
+    
+    // Claims the given schedules if they are still due and unclaimed; others are silently skipped.
+    // Each claim gets its own token, so a node that re-claims its own expired lease does not share it
+    // with the publish still holding the old one.
+    @Transactional
+    public List<Schedule> claimSchedules(String owner, List<Long> candidateIds, Instant now, Duration leaseDuration) {
+        if (candidateIds.isEmpty()) {
+            return List.of();
+        }
+        String claimToken = UUID.randomUUID().toString();
+        int claimed = scheduleRepository.claimSchedules(candidateIds, owner, claimToken, now.plus(leaseDuration), now);
+        if (claimed == 0) {
+            return List.of();
+        }
+        return scheduleRepository.findClaimedSchedules(candidateIds, owner, claimToken);
+    }
+    
+    // The methods below return false when the claim on the schedule was lost (its lease expired and it was
+    // claimed again), in which case nothing was written and the new claim owns the schedule
+    
+    @Transactional
+    public boolean renewLease(Schedule schedule, Duration leaseDuration) {
+        return scheduleRepository.renewLease(schedule.getId(), schedule.getClaimedBy(), schedule.getClaimToken(),
+                Instant.now().plus(leaseDuration)) > 0;
+    }
+    
+    @Transactional
+    public boolean updateScheduleStatus(Schedule schedule, String status, String error) {
+        if (!finishClaim(schedule, status, 1, error, schedule.getNextAttemptAt())) {
+            return false;
+        }
+        schedule.setAttemptCount(schedule.getAttemptCount() + 1);
+        schedule.setLastError(error);
+        return true;
+    }
+    
+    @Transactional
+    public boolean rescheduleAttempt(Schedule schedule, String error, Instant nextAttemptAt) {
+        if (!finishClaim(schedule, "queued", 1, error, nextAttemptAt)) {
+            return false;
+        }
         schedule.setAttemptCount(schedule.getAttemptCount() + 1);
         schedule.setLastError(error);
-        scheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new ScheduleQueuedEvent(schedule.getId(), nextAttemptAt));
+        return true;
     }
+    
+    // Hands a claimed schedule back to the queue without counting an attempt
+    @Transactional
+    public boolean releaseClaim(Schedule schedule, Instant nextAttemptAt) {
+        if (!finishClaim(schedule, "queued", 0, schedule.getLastError(), nextAttemptAt)) {
+            return false;
+        }
+        eventPublisher.publishEvent(new ScheduleQueuedEvent(schedule.getId(), nextAttemptAt));
+        return true;
+    }
+    
+    private boolean finishClaim(Schedule schedule, String status, int attempts, String error, Instant nextAttemptAt) {
+        int updated = scheduleRepository.finishClaim(schedule.getId(), schedule.getClaimedBy(), schedule.getClaimToken(),
+                status, attempts, error, nextAttemptAt);
+        if (updated == 0) {
+            return false;
+        }
+        schedule.setStatus(status);
+        schedule.setNextAttemptAt(nextAttemptAt);
+        schedule.setClaimedBy(null);
+        schedule.setClaimToken(null);
+        schedule.setLeaseExpiresAt(null);
+        return true;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<ScheduleRepository.DueTimeView> findQueuedDueTimes(Instant until, int limit) {
+        return scheduleRepository.findQueuedDueTimesBefore(until, PageRequest.of(0, limit));
+    }
+    
+    // Schedules created before nextAttemptAt existed become due at their original time
+    @Transactional
+    public int backfillNextAttemptAt() {
+        return scheduleRepository.backfillNextAttemptAt();
+    }
+    
+    private static Specification<Schedule> equalTo(String attribute, Object value) {
+        return (root, query, cb) -> value != null ? cb.equal(root.get(attribute), value) : null;
+    }
+    
+    public record ScheduleFilter(String status, Long pageId, Instant from, Instant to) {}
+    
+    // nextCursor is null on the last page
+    public record ScheduleSlice(List<Schedule> schedules, Long nextCursor) {}
 }
 
@@ -0,0 +1,51 @@
+package com.confluence.publisher.config;
+
+import com.confluence.publisher.ConfluencePublisherApplication;
+import com.confluence.publisher.service.ContentRenderService;
+import com.confluence.publisher.service.PageService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Seeding runs on every start, so a second start against an existing database must keep the generators as they are
+class IdGeneratorInitializerTest {
+    
+    @TempDir
+    Path workDir;
+    
+    @Test
+    void restartAgainstExistingDatabaseKeepsAllocatingNewIds() {
+        Long firstId;
+        try (ConfigurableApplicationContext context = start()) {
+            firstId = createPage(context);
+        }
+        try (ConfigurableApplicationContext context = start()) {
+            assertThat(createPage(context)).isGreaterThan(firstId);
+        }
+    }
+    
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ConfluencePublisherApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "app.provider=stub",
+                        "app.scheduler-enabled=false",
+                        "app.database-url=jdbc:sqlite:" + workDir.resolve("test.db"),
+                        "app.attachment-dir=" + workDir.resolve("attachments"),
+                        "app.archive-dir=" + workDir.resolve("archive"))
+                .run();
+    }
+    
+    private static Long createPage(ConfigurableApplicationContext context) {
+        return context.getBean(PageService.class).createPage("Restart", "<p>Body</p>", ContentRenderService.FORMAT_STORAGE,
+                "TEST", null, List.of()).getId();
+    }
+}
+
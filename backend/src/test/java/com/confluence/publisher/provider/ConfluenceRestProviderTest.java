@@ -0,0 +1,269 @@
+package com.confluence.publisher.provider;
+
+import com.confluence.publisher.config.AppProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Runs the provider against a local HTTP server that answers with scripted responses and records every request
+class ConfluenceRestProviderTest {
+    
+    private static final String API = "/wiki/rest/api";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<RecordedRequest> requests = new CopyOnWriteArrayList<>();
+    private final Map<String, Deque<Reply>> replies = new ConcurrentHashMap<>();
+    
+    @TempDir
+    Path tempDir;
+    
+    private HttpServer server;
+    private ConfluenceRestProvider provider;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        
+        AppProperties properties = new AppProperties();
+        properties.setConfluenceUrl("http://localhost:" + server.getAddress().getPort() + "/");
+        properties.setConfluenceUsername("user");
+        properties.setConfluenceApiToken("token");
+        properties.setProviderAttachmentRetries(2);
+        properties.setProviderAttachmentRetryBackoffMs(1L);
+        provider = new ConfluenceRestProvider(properties, objectMapper);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        provider.close();
+        server.stop(0);
+    }
+    
+    @Test
+    void publishPageCreatesPageWithStorageBody() throws IOException {
+        reply("POST", "/content", 200, "{\"id\":\"101\"}");
+        
+        BaseProvider.ProviderResult result = provider.publishPage("DEV", "Title", "<p>Body</p>", "100", List.of());
+        
+        assertThat(result.confluencePageId()).isEqualTo("101");
+        RecordedRequest request = only("POST", "/content");
+        assertThat(request.header("Authorization")).isEqualTo("Basic dXNlcjp0b2tlbg==");
+        JsonNode body = objectMapper.readTree(request.body());
+        assertThat(body.path("type").asText()).isEqualTo("page");
+        assertThat(body.path("title").asText()).isEqualTo("Title");
+        assertThat(body.path("space").path("key").asText()).isEqualTo("DEV");
+        assertThat(body.path("body").path("storage").path("value").asText()).isEqualTo("<p>Body</p>");
+        assertThat(body.path("ancestors").get(0).path("id").asText()).isEqualTo("100");
+    }
+    
+    @Test
+    void updatePageSendsNextVersion() throws IOException {
+        reply("GET", "/content/101", 200, "{\"id\":\"101\",\"version\":{\"number\":4}}");
+        reply("PUT", "/content/101", 200, "{\"id\":\"101\"}");
+        
+        BaseProvider.ProviderResult result = provider.updatePage("101", "DEV", "Title", "<p>New</p>", null, List.of());
+        
+        assertThat(result.confluencePageId()).isEqualTo("101");
+        assertThat(only("GET", "/content/101").query()).isEqualTo("expand=version");
+        JsonNode body = objectMapper.readTree(only("PUT", "/content/101").body());
+        assertThat(body.path("id").asText()).isEqualTo("101");
+        assertThat(body.path("version").path("number").asInt()).isEqualTo(5);
+        assertThat(body.path("body").path("storage").path("value").asText()).isEqualTo("<p>New</p>");
+    }
+    
+    @Test
+    void updatePageWithoutContentOnlyUploadsAttachments() throws IOException {
+        reply("PUT", "/content/101/child/attachment", 200, "{\"results\":[]}");
+        
+        BaseProvider.ProviderResult result = provider.updatePage("101", "DEV", "Title", null, null,
+                List.of(attachment("a.txt", "alpha")));
+        
+        assertThat(result.attachments()).allMatch(BaseProvider.AttachmentResult::uploaded);
+        assertThat(requests).extracting(RecordedRequest::method).containsExactly("PUT");
+    }
+    
+    @Test
+    void uploadsAttachmentAsMultipartWithSafeFilename() throws IOException {
+        reply("POST", "/content", 200, "{\"id\":\"101\"}");
+        reply("PUT", "/content/101/child/attachment", 200, "{\"results\":[]}");
+        String filename = "report\r\nX-Injected: 1\"\u00e9.txt";
+        
+        BaseProvider.ProviderResult result = provider.publishPage("DEV", "Title", "<p>Body</p>", null,
+                List.of(attachment(filename, "attachment bytes")));
+        
+        assertThat(result.attachments()).singleElement().satisfies(attachment -> assertThat(attachment.uploaded()).isTrue());
+        RecordedRequest upload = only("PUT", "/content/101/child/attachment");
+        assertThat(upload.header("X-Atlassian-Token")).isEqualTo("no-check");
+        assertThat(upload.header("Content-Type")).startsWith("multipart/form-data; boundary=");
+        String multipart = new String(upload.body(), StandardCharsets.UTF_8);
+        String disposition = multipart.lines()
+                .filter(line -> line.startsWith("Content-Disposition:"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(disposition).isEqualTo("Content-Disposition: form-data; name=\"file\"; filename=\"reportX-Injected: 1\u00e9.txt\"; "
+                + "filename*=UTF-8''report%0D%0AX-Injected%3A%201%22%C3%A9.txt");
+        assertThat(multipart).doesNotContain("\r\nX-Injected").contains("\r\n\r\nattachment bytes\r\n--");
+    }
+    
+    @Test
+    void contentDispositionFallsBackWhenNothingPrintableIsLeft() {
+        assertThat(ConfluenceRestProvider.contentDisposition("\r\n"))
+                .isEqualTo("form-data; name=\"file\"; filename=\"attachment\"; filename*=UTF-8''%0D%0A");
+    }
+    
+    @Test
+    void mapsErrorResponsesToProviderExceptions() {
+        reply("POST", "/content", 400, "{\"message\":\"Bad title\"}");
+        
+        assertThatThrownBy(() -> provider.publishPage("DEV", "Title", "<p>Body</p>", null, List.of()))
+                .isInstanceOfSatisfying(ProviderException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(400);
+                    assertThat(e.isRetryable()).isFalse();
+                    assertThat(e.getMessage()).contains("POST").contains("Bad title");
+                });
+        
+        replies.clear();
+        reply("GET", "/content/101", 503, "unavailable");
+        assertThatThrownBy(() -> provider.getStatus("101"))
+                .isInstanceOfSatisfying(ProviderException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(503);
+                    assertThat(e.isRetryable()).isTrue();
+                });
+    }
+    
+    @Test
+    void mapsConnectionFailuresToRetryableProviderExceptions() {
+        server.stop(0);
+        
+        assertThatThrownBy(() -> provider.getStatus("101"))
+                .isInstanceOfSatisfying(ProviderException.class, e -> {
+                    assertThat(e.getStatusCode()).isZero();
+                    assertThat(e.isRetryable()).isTrue();
+                });
+    }
+    
+    @Test
+    void retriesRetryableAttachmentFailures() throws IOException {
+        reply("POST", "/content", 200, "{\"id\":\"101\"}");
+        reply("PUT", "/content/101/child/attachment", 503, "busy");
+        reply("PUT", "/content/101/child/attachment", 200, "{\"results\":[]}");
+        
+        BaseProvider.ProviderResult result = provider.publishPage("DEV", "Title", "<p>Body</p>", null,
+                List.of(attachment("a.txt", "alpha")));
+        
+        assertThat(result.failedAttachments()).isEmpty();
+        assertThat(count("PUT", "/content/101/child/attachment")).isEqualTo(2);
+    }
+    
+    @Test
+    void reportsAttachmentThatStillFailsAfterRetries() throws IOException {
+        reply("POST", "/content", 200, "{\"id\":\"101\"}");
+        reply("PUT", "/content/101/child/attachment", 500, "broken");
+        
+        BaseProvider.ProviderResult result = provider.publishPage("DEV", "Title", "<p>Body</p>", null,
+                List.of(attachment("a.txt", "alpha")));
+        
+        assertThat(result.confluencePageId()).isEqualTo("101");
+        assertThat(result.failedAttachments()).singleElement()
+                .satisfies(failed -> assertThat(failed.error().getStatusCode()).isEqualTo(500));
+        // The first attempt plus providerAttachmentRetries
+        assertThat(count("PUT", "/content/101/child/attachment")).isEqualTo(3);
+    }
+    
+    @Test
+    void doesNotRetryClientErrorsOnAttachments() throws IOException {
+        reply("POST", "/content", 200, "{\"id\":\"101\"}");
+        reply("PUT", "/content/101/child/attachment", 413, "too large");
+        
+        BaseProvider.ProviderResult result = provider.publishPage("DEV", "Title", "<p>Body</p>", null,
+                List.of(attachment("a.txt", "alpha")));
+        
+        assertThat(result.failedAttachments()).hasSize(1);
+        assertThat(count("PUT", "/content/101/child/attachment")).isEqualTo(1);
+    }
+    
+    // Replies are used in order; the last one keeps answering once the others are used up
+    private void reply(String method, String path, int status, String body) {
+        replies.computeIfAbsent(method + " " + API + path, key -> new ArrayDeque<>()).add(new Reply(status, body));
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        requests.add(new RecordedRequest(method, path, exchange.getRequestURI().getQuery(),
+                exchange.getRequestHeaders().entrySet().stream()
+                        .collect(Collectors.toMap(entry -> entry.getKey().toLowerCase(), entry -> entry.getValue().get(0))),
+                exchange.getRequestBody().readAllBytes()));
+        
+        Reply reply = nextReply(method + " " + path);
+        byte[] body = reply.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(reply.status(), body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+    
+    private Reply nextReply(String key) {
+        Deque<Reply> queue = replies.get(key);
+        if (queue == null) {
+            return new Reply(404, "{}");
+        }
+        synchronized (queue) {
+            return queue.size() > 1 ? queue.poll() : queue.peek();
+        }
+    }
+    
+    private RecordedRequest only(String method, String path) {
+        List<RecordedRequest> matching = requests.stream()
+                .filter(request -> request.method().equals(method) && request.path().equals(API + path))
+                .toList();
+        assertThat(matching).hasSize(1);
+        return matching.get(0);
+    }
+    
+    private long count(String method, String path) {
+        return requests.stream()
+                .filter(request -> request.method().equals(method) && request.path().equals(API + path))
+                .count();
+    }
+    
+    private BaseProvider.AttachmentFile attachment(String filename, String content) throws IOException {
+        Path file = Files.createTempFile(tempDir, "attachment", ".bin");
+        Files.writeString(file, content);
+        return new BaseProvider.AttachmentFile(file.toString(), filename, "text/plain");
+    }
+    
+    private record Reply(int status, String body) {}
+    
+    private record RecordedRequest(String method, String path, String query, Map<String, String> headers, byte[] body) {
+        
+        String header(String name) {
+            return headers.get(name.toLowerCase());
+        }
+    }
+}
+
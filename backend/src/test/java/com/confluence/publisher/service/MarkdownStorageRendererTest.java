@@ -0,0 +1,118 @@
+package com.confluence.publisher.service;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Confluence rejects storage format that is not well-formed XML, so every case is parsed with a strict XML parser
+class MarkdownStorageRendererTest {
+    
+    private static final String AC = "http://atlassian.com/content";
+    private static final String RI = "http://atlassian.com/resource/identifier";
+    
+    private final MarkdownStorageRenderer renderer = new MarkdownStorageRenderer();
+    
+    @Test
+    void codeBlockContainingCdataEndIsSplitAndKeptVerbatim() throws Exception {
+        String code = "String end = \"]]>\";\nif (a < b && c > d) { return \"]]]]>\"; }";
+        Document document = parse(renderer.render("```java\n" + code + "\n```\n", Map.of()));
+        
+        Element macro = single(document, AC, "structured-macro");
+        assertThat(macro.getAttributeNS(AC, "name")).isEqualTo("code");
+        assertThat(single(document, AC, "parameter").getTextContent()).isEqualTo("java");
+        assertThat(single(document, AC, "plain-text-body").getTextContent()).isEqualTo(code);
+    }
+    
+    @Test
+    void rawHtmlIsEscapedAsText() throws Exception {
+        String markdown = "<div class=\"note\"><script>alert('x')</script>\n\nInline <b>bold & more</b> ]]> text\n";
+        String storage = renderer.render(markdown, Map.of());
+        Document document = parse(storage);
+        
+        assertThat(document.getElementsByTagName("div").getLength()).isZero();
+        assertThat(document.getElementsByTagName("script").getLength()).isZero();
+        assertThat(document.getElementsByTagName("b").getLength()).isZero();
+        assertThat(storage).contains("&lt;script&gt;");
+        assertThat(document.getDocumentElement().getTextContent())
+                .contains("<script>alert('x')</script>")
+                .contains("<b>bold & more</b> ]]> text");
+    }
+    
+    @Test
+    void attachmentImagesBecomeAttachmentReferences() throws Exception {
+        String markdown = "![Build & deploy](attachment:0 \"Pipeline\")\n\n"
+                + "![by name](attachment:a&b.png)\n\n"
+                + "![unknown](attachment:7)\n\n"
+                + "![external](https://example.com/x.png?a=1&b=2)\n";
+        Document document = parse(renderer.render(markdown, Map.of(0, "diagram.png", 1, "a&b.png")));
+        
+        NodeList images = document.getElementsByTagNameNS(AC, "image");
+        assertThat(images.getLength()).isEqualTo(4);
+        Element first = (Element) images.item(0);
+        assertThat(first.getAttributeNS(AC, "alt")).isEqualTo("Build & deploy");
+        assertThat(first.getAttributeNS(AC, "title")).isEqualTo("Pipeline");
+        
+        NodeList attachments = document.getElementsByTagNameNS(RI, "attachment");
+        assertThat(attachments.getLength()).isEqualTo(3);
+        assertThat(((Element) attachments.item(0)).getAttributeNS(RI, "filename")).isEqualTo("diagram.png");
+        assertThat(((Element) attachments.item(1)).getAttributeNS(RI, "filename")).isEqualTo("a&b.png");
+        // A position without an attachment is left as written rather than guessed
+        assertThat(((Element) attachments.item(2)).getAttributeNS(RI, "filename")).isEqualTo("7");
+        assertThat(single(document, RI, "url").getAttributeNS(RI, "value")).isEqualTo("https://example.com/x.png?a=1&b=2");
+    }
+    
+    @Test
+    void imageUrlsWithUnsafeSchemesAreDropped() throws Exception {
+        String markdown = "![script](javascript:alert(1)) ![vb](VBScript:msgbox) ![ok](http://example.com/a.png)\n";
+        String storage = renderer.render(markdown, Map.of());
+        Document document = parse(storage);
+        
+        assertThat(storage).doesNotContainIgnoringCase("javascript").doesNotContainIgnoringCase("vbscript");
+        assertThat(single(document, AC, "image").getAttributeNS(AC, "alt")).isEqualTo("ok");
+        assertThat(single(document, RI, "url").getAttributeNS(RI, "value")).isEqualTo("http://example.com/a.png");
+        // An image that cannot be shown keeps its alt text
+        assertThat(document.getDocumentElement().getTextContent()).contains("script").contains("vb");
+    }
+    
+    @Test
+    void tablesAreWellFormed() throws Exception {
+        String markdown = "| Name | Value |\n"
+                + "|:-----|------:|\n"
+                + "| a < b | `x && y` |\n"
+                + "| ]]> | <br> |\n";
+        Document document = parse(renderer.render(markdown, Map.of()));
+        
+        assertThat(document.getElementsByTagName("table").getLength()).isEqualTo(1);
+        assertThat(document.getElementsByTagName("th").getLength()).isEqualTo(2);
+        NodeList cells = document.getElementsByTagName("td");
+        assertThat(cells.getLength()).isEqualTo(4);
+        assertThat(cells.item(0).getTextContent()).isEqualTo("a < b");
+        assertThat(cells.item(1).getTextContent()).isEqualTo("x && y");
+        assertThat(cells.item(2).getTextContent()).isEqualTo("]]>");
+        assertThat(cells.item(3).getTextContent()).isEqualTo("<br>");
+    }
+    
+    // Storage format is a fragment using the ac and ri prefixes, so it is wrapped in a root declaring them
+    private static Document parse(String storage) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        String xml = "<root xmlns:ac=\"" + AC + "\" xmlns:ri=\"" + RI + "\">" + storage + "</root>";
+        return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+    }
+    
+    private static Element single(Document document, String namespace, String localName) {
+        NodeList nodes = document.getElementsByTagNameNS(namespace, localName);
+        assertThat(nodes.getLength()).isEqualTo(1);
+        return (Element) nodes.item(0);
+    }
+}
+
@@ -0,0 +1,118 @@
+package com.confluence.publisher.service;
+
+import com.confluence.publisher.entity.Attachment;
+import com.confluence.publisher.repository.AttachmentRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Reading or publishing a page must cost the same number of statements however many attachments it has
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "app.provider=stub",
+        "app.scheduler-enabled=false",
+        "app.provider-rate-limit-per-second=1000000",
+        "app.provider-rate-limit-burst=1000000",
+        "app.provider-space-rate-limit-per-second=1000000",
+        "app.provider-space-rate-limit-burst=1000000",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class PageStatementCountTest {
+    
+    private static final int FEW = 1;
+    private static final int MANY = 30;
+    
+    @TempDir
+    static Path workDir;
+    
+    @Autowired
+    private PageService pageService;
+    
+    @Autowired
+    private PublishService publishService;
+    
+    @Autowired
+    private AttachmentRepository attachmentRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("app.database-url", () -> "jdbc:sqlite:" + workDir.resolve("test.db"));
+        registry.add("app.attachment-dir", () -> workDir.resolve("attachments").toString());
+        registry.add("app.archive-dir", () -> workDir.resolve("archive").toString());
+    }
+    
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Keeps one-off work of the first publish (provider setup, lazy caches) out of the measured calls
+        publishService.publishPage(createPage(FEW));
+    }
+    
+    @Test
+    void getPageStatementCountDoesNotGrowWithAttachments() {
+        Long fewAttachments = createPage(FEW);
+        Long manyAttachments = createPage(MANY);
+        
+        long few = countStatements(() -> pageService.getPage(fewAttachments));
+        long many = countStatements(() -> pageService.getPage(manyAttachments));
+        
+        assertThat(pageService.getPage(manyAttachments).getAttachments()).hasSize(MANY);
+        assertThat(few).isPositive();
+        assertThat(many).isEqualTo(few);
+    }
+    
+    @Test
+    void publishPageStatementCountDoesNotGrowWithAttachments() {
+        Long fewAttachments = createPage(FEW);
+        Long manyAttachments = createPage(MANY);
+        
+        long few = countStatements(() -> publishService.publishPage(fewAttachments));
+        long many = countStatements(() -> publishService.publishPage(manyAttachments));
+        
+        assertThat(few).isPositive();
+        assertThat(many).isEqualTo(few);
+    }
+    
+    private long countStatements(Runnable call) {
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+    
+    // Attachment rows only: neither reading nor publishing to the stub provider opens the stored files
+    private Long createPage(int attachmentCount) {
+        List<Long> attachmentIds = new ArrayList<>(attachmentCount);
+        for (int i = 0; i < attachmentCount; i++) {
+            String contentHash = UUID.randomUUID().toString().replace("-", "");
+            attachmentIds.add(attachmentRepository.save(Attachment.builder()
+                    .filename("file-" + i + ".png")
+                    .contentType("image/png")
+                    .size(4096L)
+                    .storagePath("test/" + contentHash)
+                    .contentHash(contentHash)
+                    .build()).getId());
+        }
+        return pageService.createPage("Statement count", "<p>Body</p>", ContentRenderService.FORMAT_STORAGE,
+                "TEST", null, attachmentIds).getId();
+    }
+}
+